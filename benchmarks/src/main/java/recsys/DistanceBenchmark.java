@@ -0,0 +1,131 @@
+package recsys;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cost of the distance between two books, per pair. Every invocation compares one book with every book.
+ *
+ * euclidean, cosine - the Similarity implementations of the fourth job
+ * hashMaps - a map per book and a pass over the union of their terms, as the first EuclidDMapper did per pair
+ * dense - Euclidean distance between 64 dimension projections of the books (Embeddings), as EmbeddingSearch does
+ */
+@State(Scope.Thread)
+public class DistanceBenchmark {
+
+    private static final int NUM_BOOKS = 256;
+
+    @Param({"100000"})
+    public int vocabulary;
+
+    @Param({"0.001", "0.01"})
+    public double density;
+
+    private SparseVector[] bcvs;
+    private SparseVector[] unitBcvs;
+    private Map<Integer, Double>[] bcvMaps;
+    private Embeddings embeddings;
+
+    private final Similarity euclidean = new EuclideanSimilarity();
+    private final Similarity cosine = new CosineSimilarity();
+
+    private int row = 0;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup(){
+        SyntheticCorpus corpus = new SyntheticCorpus(42, vocabulary);
+
+        bcvs = new SparseVector[NUM_BOOKS];
+        unitBcvs = new SparseVector[NUM_BOOKS];
+        bcvMaps = new Map[NUM_BOOKS];
+
+        for(int i = 0; i < NUM_BOOKS; i++){
+            bcvs[i] = corpus.vector(density);
+            unitBcvs[i] = cosine.prepare(bcvs[i]);
+
+            bcvMaps[i] = new HashMap<Integer, Double>();
+            for(int t = 0; t < bcvs[i].size(); t++){
+                bcvMaps[i].put(bcvs[i].termId(t), bcvs[i].weight(t));
+            }
+        }
+
+        String[] titles = new String[NUM_BOOKS];
+        for(int i = 0; i < NUM_BOOKS; i++){
+            titles[i] = SyntheticCorpus.title(i);
+        }
+        embeddings = Embeddings.project(titles, bcvs, new RandomProjection(64, 42), false);
+    }
+
+    private int nextRow(){
+        row = (row + 1) % NUM_BOOKS;
+        return row;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_BOOKS)
+    public double euclidean(){
+        SparseVector bcv = bcvs[nextRow()];
+
+        double sum = 0;
+        for(SparseVector other : bcvs){
+            sum += euclidean.distance(bcv, other);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_BOOKS)
+    public double cosine(){
+        SparseVector bcv = unitBcvs[nextRow()];
+
+        double sum = 0;
+        for(SparseVector other : unitBcvs){
+            sum += cosine.distance(bcv, other);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_BOOKS)
+    public double hashMaps(){
+        Map<Integer, Double> book1 = bcvMaps[nextRow()];
+
+        double total = 0;
+        for(Map<Integer, Double> book2 : bcvMaps){
+            Set<Integer> terms = new HashSet<Integer>(book1.keySet());
+            terms.addAll(book2.keySet());
+
+            double sum = 0;
+            for(Integer term : terms){
+                Double weight1 = book1.get(term);
+                Double weight2 = book2.get(term);
+                double diff = (weight1 == null ? 0 : weight1) - (weight2 == null ? 0 : weight2);
+                sum += diff * diff;
+            }
+            total += Math.sqrt(sum);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_BOOKS)
+    public double dense(){
+        int book = nextRow();
+
+        double sum = 0;
+        for(int other = 0; other < NUM_BOOKS; other++){
+            sum += embeddings.distance(book, other);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,84 @@
+package recsys;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Cost of a CLI query (CLI.getSimilarBooks): find the book by title, then the title and distance of each of its
+ * nearest books.
+ *
+ * loaded - SimilarityIndex loaded from a fourth job output
+ * mapped - MappedSimilarityIndex of the same neighbours, written by IndexCompiler
+ */
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+
+    @Param({"10000"})
+    public int books;
+
+    @Param({"30"})
+    public int neighbours;
+
+    private File output;
+    private File indexFile;
+
+    private RecommendationIndex loaded;
+    private RecommendationIndex mapped;
+
+    private String[] titles;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        output = File.createTempFile("neighbours", ".txt");
+        indexFile = File.createTempFile("neighbours", ".idx");
+
+        new SyntheticCorpus(42, 1).writeNeighbours(output, books, neighbours);
+
+        SimilarityIndex index = SimilarityIndex.load(output, neighbours);
+        IndexCompiler.write(index, indexFile);
+
+        loaded = index;
+        mapped = MappedSimilarityIndex.open(indexFile);
+
+        titles = new String[books];
+        for(int i = 0; i < books; i++){
+            titles[i] = SyntheticCorpus.title(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        output.delete();
+        indexFile.delete();
+    }
+
+    private void similarBooks(RecommendationIndex index, Blackhole blackhole){
+        next = (next + 1) % titles.length;
+        int book = index.getId(titles[next]);
+
+        for(int i = 0; i < index.neighbourCount(book); i++){
+            blackhole.consume(index.getTitle(index.neighbour(book, i)));
+            blackhole.consume(index.distance(book, i));
+        }
+    }
+
+    @Benchmark
+    public void loaded(Blackhole blackhole){
+        similarBooks(loaded, blackhole);
+    }
+
+    @Benchmark
+    public void mapped(Blackhole blackhole){
+        similarBooks(mapped, blackhole);
+    }
+}
@@ -0,0 +1,59 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Runs every job of RecommendationSystem in Hadoop local mode on a generated corpus, so the per-job summaries
+ * (wall time, records, shuffle bytes, PipelineCounters) show which stage grows fastest with the corpus.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar recsys.PipelineBenchmark [-D option=value ...] [books]
+ *        [linesPerBook] [vocabulary]
+ * Ex. -D recsys.topk=30 -D recsys.similarity=cosine 200 2000 50000
+ * Everything is written to a temporary directory, deleted at the end.
+ */
+public class PipelineBenchmark {
+
+    private static final int WORDS_PER_LINE = 12;
+
+    public static void main(String[] args) throws Exception {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs();
+
+        int numBooks = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int linesPerBook = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int vocabulary = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+
+        File workDir = Files.createTempDirectory("recsys").toFile();
+        try {
+            File inputDir = new File(workDir, "books");
+            if(!inputDir.mkdir()){
+                throw new IOException("Cannot create " + inputDir);
+            }
+
+            long start = System.currentTimeMillis();
+            SyntheticCorpus corpus = new SyntheticCorpus(42, vocabulary);
+            for(int book = 0; book < numBooks; book++){
+                corpus.writeBook(new File(inputDir, "book" + book + ".txt"), "Book " + book, linesPerBook, WORDS_PER_LINE);
+            }
+            System.out.println("== Generated " + numBooks + " books of " + linesPerBook + " lines in "
+                    + (System.currentTimeMillis() - start) / 1000.0 + " s");
+
+            //Single process, local file system
+            conf.set("mapreduce.framework.name", "local");
+            conf.set("fs.defaultFS", "file:///");
+            conf.set(RecommendationSystem.WORK_DIR, workDir.getAbsolutePath());
+
+            String firstJobOutput = new File(workDir, "firstJobOutput").getAbsolutePath();
+            RecommendationSystem.run(new String[]{inputDir.getAbsolutePath(), firstJobOutput}, conf);
+        }
+        finally {
+            FileUtil.fullyDelete(workDir);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package recsys;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates the inputs of the benchmarks from a seed, so every run of a benchmark sees the same data.
+ *
+ * Words are drawn with a skew towards the low ids, so a few words are very common and most are rare, like the
+ * words of a book.
+ */
+public class SyntheticCorpus {
+
+    private final Random random;
+    private final int vocabulary;
+
+    public SyntheticCorpus(long seed, int vocabulary) {
+        this.random = new Random(seed);
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * @return a word id, low ids are much more likely
+     */
+    private int nextWordId(){
+        double r = random.nextDouble();
+        return (int) (r * r * r * vocabulary);
+    }
+
+    /**
+     * Word made of lower case letters, one per base 26 digit of the id. Ex. 0 -> a, 27 -> bb
+     */
+    public static String word(int id){
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + id % 26));
+            id /= 26;
+        } while(id > 0);
+        return word.toString();
+    }
+
+    /**
+     * A line of a book, with some capitalized words and punctuation for the tokenizers to remove
+     */
+    public String line(int numWords){
+        StringBuilder line = new StringBuilder();
+
+        for(int i = 0; i < numWords; i++){
+            String word = word(nextWordId());
+            if(random.nextInt(8) == 0){
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            line.append(word);
+            if(random.nextInt(6) == 0){
+                line.append(',');
+            }
+            line.append(' ');
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Writes a book in the Project Gutenberg layout read by FreqMapper: header with the title, text between the
+     * START and END markers, license
+     */
+    public void writeBook(File file, String title, int numLines, int wordsPerLine) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+
+        try {
+            out.write("The Project Gutenberg EBook\n\nTitle: " + title + "\n\n*** START OF THIS PROJECT GUTENBERG EBOOK ***\n");
+            for(int i = 0; i < numLines; i++){
+                out.write(line(wordsPerLine) + "\n");
+            }
+            out.write("*** END OF THIS PROJECT GUTENBERG EBOOK ***\nEnd of the license\n");
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * A book characteristic vector with density * vocabulary distinct terms (at least 1) and random weights
+     */
+    public SparseVector vector(double density){
+        int numTerms = Math.max(1, Math.min(vocabulary, (int) (density * vocabulary)));
+
+        boolean[] used = new boolean[vocabulary];
+        int[] termIds = new int[numTerms];
+        double[] weights = new double[numTerms];
+
+        for(int i = 0; i < numTerms; i++){
+            int termId = nextWordId();
+            while(used[termId]){
+                termId = random.nextInt(vocabulary); //Common words are taken, pick any other
+            }
+            used[termId] = true;
+
+            termIds[i] = termId;
+            weights[i] = random.nextDouble() * 4;
+        }
+
+        return SparseVector.sorted(termIds, weights);
+    }
+
+    /**
+     * Writes a top-K fourth job output: numNeighbours random neighbours for every book, closest first
+     */
+    public void writeNeighbours(File output, int numBooks, int numNeighbours) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8));
+
+        try {
+            double[] distances = new double[numNeighbours];
+            for(int book = 0; book < numBooks; book++){
+                for(int n = 0; n < numNeighbours; n++){
+                    distances[n] = random.nextDouble() * 10;
+                }
+                Arrays.sort(distances);
+
+                for(int n = 0; n < numNeighbours; n++){
+                    int neighbour = random.nextInt(numBooks);
+                    out.write(title(book) + "_" + title(neighbour) + "\t" + distances[n] + "\n");
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    public static String title(int book){
+        return "book" + book;
+    }
+}
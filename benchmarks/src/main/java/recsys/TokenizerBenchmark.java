@@ -0,0 +1,82 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of turning a line of a book into term counts in FreqMapper, per line.
+ *
+ * tokenizer - Tokenizer and TermCounter (in-mapper combining), as FreqMapper does now
+ * regex - split and replaceAll with a Text and IntWritable per word, as the first FreqMapper did
+ */
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+    private static final int NUM_LINES = 1024;
+
+    @Param({"10000", "100000"})
+    public int vocabulary;
+
+    @Param({"12"})
+    public int wordsPerLine;
+
+    private Text[] lines;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private TermCounter termCounter;
+
+    @Setup
+    public void setup(){
+        SyntheticCorpus corpus = new SyntheticCorpus(42, vocabulary);
+
+        lines = new Text[NUM_LINES];
+        for(int i = 0; i < NUM_LINES; i++){
+            lines[i] = new Text(corpus.line(wordsPerLine));
+        }
+
+        termCounter = new TermCounter(100000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public int tokenizer(){
+        termCounter.clear();
+
+        for(Text line : lines){
+            tokenizer.reset(line);
+            while(tokenizer.next()){
+                if(termCounter.isFull()){
+                    termCounter.clear();
+                }
+                termCounter.add(tokenizer.getBytes(), tokenizer.getLength());
+            }
+        }
+
+        return termCounter.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void regex(Blackhole blackhole){
+        IntWritable one = new IntWritable(1);
+        String title = "book";
+
+        for(Text line : lines){
+            for(String token : line.toString().split("\\s")){
+                token = token.replaceAll("[^a-zA-Z1-9]", "").toLowerCase().trim();
+
+                if(token.isEmpty()) continue;
+
+                blackhole.consume(new Text(token + " " + title));
+                blackhole.consume(one);
+            }
+        }
+    }
+}
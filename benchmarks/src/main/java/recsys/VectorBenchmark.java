@@ -0,0 +1,75 @@
+package recsys;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+/**
+ * Cost of reading a book characteristic vector, per vector.
+ *
+ * parseText - split and SparseVector.parseBCV of a line of the text BCV file (EuclidDMapper, allpairs mode)
+ * readWritable - SparseVectorWritable from the SequenceFile bytes of the third job (blocked and LSH modes)
+ */
+@State(Scope.Thread)
+public class VectorBenchmark {
+
+    private static final int NUM_VECTORS = 256;
+
+    @Param({"100000"})
+    public int vocabulary;
+
+    @Param({"0.001", "0.01"})
+    public double density;
+
+    private String[] textLines;
+    private byte[] serialized;
+    private int serializedLength;
+
+    private final DataInputBuffer in = new DataInputBuffer();
+    private final SparseVectorWritable writable = new SparseVectorWritable();
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticCorpus corpus = new SyntheticCorpus(42, vocabulary);
+
+        textLines = new String[NUM_VECTORS];
+        DataOutputBuffer out = new DataOutputBuffer();
+
+        for(int i = 0; i < NUM_VECTORS; i++){
+            SparseVectorWritable bcv = new SparseVectorWritable(corpus.vector(density));
+
+            textLines[i] = SyntheticCorpus.title(i) + "\t" + bcv;
+            bcv.write(out);
+        }
+
+        serialized = out.getData();
+        serializedLength = out.getLength();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VECTORS)
+    public void parseText(Blackhole blackhole){
+        for(String line : textLines){
+            blackhole.consume(SparseVector.parseBCV(line.split("\\s+")));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VECTORS)
+    public void readWritable(Blackhole blackhole) throws IOException {
+        in.reset(serialized, serializedLength);
+
+        for(int i = 0; i < NUM_VECTORS; i++){
+            writable.readFields(in);
+            blackhole.consume(writable.get());
+        }
+    }
+}
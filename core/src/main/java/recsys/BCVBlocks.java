@@ -0,0 +1,167 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The books of two blocks of the BCV file, as given to a map task of the blocked fourth job.
+ *
+ * The books of the BCV file are striped into numBlocks blocks by record number (record i goes to block
+ * i % numBlocks). The file is made of the SequenceFiles of book, SparseVectorWritable written by the reducers of
+ * the third job, linked into the working directory of the task by the distributed cache (see addCacheFiles) and
+ * numbered in part order. Vectors are prepared for the Similarity of the run (see Similarities) as they are read,
+ * then kept as QuantizedVectors with -D recsys.vector.bits=16 or 8.
+ */
+public class BCVBlocks {
+
+    public static final String NUM_BLOCKS = "recsys.fourth.blocks";
+
+    //Number of part files linked by addCacheFiles
+    private static final String NUM_PARTS = "recsys.fourth.parts";
+
+    /**
+     * A book of the BCV file and the record it was read from
+     */
+    public static class Book {
+        public final int record;
+        public final String title;
+
+        //One of the two holds the vector
+        public final SparseVector bcv;
+        public final QuantizedVector quantized;
+
+        private Book(int record, String title, SparseVector bcv, QuantizedVector quantized) {
+            this.record = record;
+            this.title = title;
+            this.bcv = bcv;
+            this.quantized = quantized;
+        }
+
+        public double distance(Similarity similarity, Book other){
+            if(quantized != null){
+                return similarity.distance(quantized, other.quantized);
+            }
+            return similarity.distance(bcv, other.bcv);
+        }
+    }
+
+    public final int rowBlock;
+    public final int colBlock;
+
+    public final List<Book> rows = new ArrayList<Book>();
+
+    //Empty for a diagonal block (rowBlock == colBlock)
+    public final List<Book> cols = new ArrayList<Book>();
+
+    /**
+     * @return the part files of the BCV output, sorted by path so every reader numbers the records the same way
+     */
+    public static FileStatus[] listParts(FileSystem fs, Path bcvPath) throws IOException {
+        FileStatus[] parts = fs.listStatus(bcvPath, new PathFilter() {
+            public boolean accept(Path path) {
+                return path.getName().startsWith("part-");
+            }
+        });
+        Arrays.sort(parts);
+        return parts;
+    }
+
+    /**
+     * Links every part file of the BCV output into the working directory of the tasks as cacheName0, cacheName1 ...
+     */
+    public static void addCacheFiles(Job job, Path bcvPath, String cacheName) throws IOException {
+        FileSystem fs = bcvPath.getFileSystem(job.getConfiguration());
+        FileStatus[] parts = listParts(fs, bcvPath);
+
+        for(int i = 0; i < parts.length; i++){
+            URI uri = fs.makeQualified(parts[i].getPath()).toUri();
+            try {
+                job.addCacheFile(new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, cacheName + i));
+            }
+            catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        job.getConfiguration().setInt(NUM_PARTS, parts.length);
+    }
+
+    /**
+     * Reads the cache files once and keeps only the books belonging to the given blocks
+     */
+    public BCVBlocks(Configuration conf, String cacheName, int rowBlock, int colBlock) throws IOException {
+        this.rowBlock = rowBlock;
+        this.colBlock = colBlock;
+
+        int numBlocks = conf.getInt(NUM_BLOCKS, 1);
+        int numParts = conf.getInt(NUM_PARTS, 1);
+
+        Similarity similarity = Similarities.fromConf(conf);
+        int bits = conf.getInt(QuantizedVector.BITS, 64);
+
+        Text title = new Text();
+        SparseVectorWritable vector = new SparseVectorWritable();
+        int record = 0;
+
+        for(int part = 0; part < numParts; part++){
+            record = readPart(conf, cacheName + part, numBlocks, record, similarity, bits, title, vector);
+        }
+    }
+
+    /**
+     * @return the record number following the last book of the part
+     */
+    private int readPart(Configuration conf, String partName, int numBlocks, int record, Similarity similarity, int bits, Text title, SparseVectorWritable vector) throws IOException {
+        //The cache file is linked into the working directory of the task, which is on the local file system
+        Path cachePath = FileSystem.getLocal(conf).makeQualified(new Path(partName));
+        SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(cachePath));
+
+        try {
+            while(reader.next(title, vector)){
+                int block = record % numBlocks;
+
+                if(block == rowBlock || block == colBlock){
+                    SparseVector bcv = similarity.prepare(vector.get());
+                    Book book = bits <= 16 ? new Book(record, title.toString(), null, QuantizedVector.quantize(bcv, bits))
+                            : new Book(record, title.toString(), bcv, null);
+                    if(block == rowBlock){
+                        rows.add(book);
+                    }
+                    if(block == colBlock && rowBlock != colBlock){
+                        cols.add(book);
+                    }
+                }
+                record++;
+            }
+        }
+        finally {
+            reader.close();
+        }
+        return record;
+    }
+
+    /**
+     * Parses the value of the block pair file. Ex. "2 5"
+     */
+    public static BCVBlocks load(Configuration conf, String cacheName, Text blockPair) throws IOException {
+        String[] blocks = blockPair.toString().trim().split("\\s+");
+
+        return new BCVBlocks(conf, cacheName, Integer.parseInt(blocks[0]), Integer.parseInt(blocks[1]));
+    }
+
+    public boolean isDiagonal(){
+        return rowBlock == colBlock;
+    }
+}
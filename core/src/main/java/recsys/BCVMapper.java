@@ -0,0 +1,77 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+
+/**
+ * Calculates TFxIDF of a term for every book it appears in.
+ *
+ * Every record of the second job holds all the books of one term, so the number of books the term appears in
+ * (document frequency) is the length of the record and nothing has to be kept between records. The total number of
+ * books is counted by the dictionary job and passed in the configuration (TOTAL_BOOKS).
+ *
+ * Input - output of the second job
+ *          Key - Term id
+ *          Value - BookFreqArrayWritable Ex. 7 |L_10/20|K_9/20|M_5/20
+ * Output - One record for every book the term appears in, gathered into vectors by BCVReducer
+ *          Key - Book
+ *          Value - TermWeightWritable termId=TF.IDF
+ * Ex.
+ *      L 7=0.32
+ *      K 7=0.29
+ *      M 7=0.16
+ */
+public class BCVMapper extends Mapper<IntWritable, BookFreqArrayWritable, Text, TermWeightWritable> {
+
+    public static final String TOTAL_BOOKS = "recsys.books";
+
+    private long totalNumBooks;
+
+    private final Text book = new Text();
+    private final TermWeightWritable termWeight = new TermWeightWritable();
+
+    private long nonZeroTFIDFs = 0;
+
+    public void setup(Context context) throws IOException {
+        totalNumBooks = context.getConfiguration().getLong(TOTAL_BOOKS, 0);
+        if(totalNumBooks <= 0){
+            throw new IOException(TOTAL_BOOKS + " is not set");
+        }
+    }
+
+    public void map(IntWritable key, BookFreqArrayWritable value, Context context) throws IOException, InterruptedException {
+
+        Writable[] bookFreqs = value.get(); //Ex. 7 |L_10/20|K_9/20|M_5/20
+
+        int term = key.get(); //7
+
+        //inverse document frequency: total numBooks divided by number of books term appears in (3)
+        double IDF = TfIdf.idf(totalNumBooks, bookFreqs.length);
+        if(IDF == 0){
+            return; //Term is in every book, TF.IDF is 0 for all of them
+        }
+
+        for(Writable writable : bookFreqs){
+
+            BookFreqWritable bookFreq = (BookFreqWritable) writable;
+
+            double TFIDF = bookFreq.getNormalizedFreq() * IDF;
+            if(TFIDF == 0){
+                continue;
+            }
+
+            book.set(bookFreq.getBook());
+            termWeight.set(term, TFIDF);
+            context.write(book, termWeight);
+            nonZeroTFIDFs++;
+        }
+    }
+
+    public void cleanup(Context context) {
+        context.getCounter(PipelineCounters.NONZERO_TFIDF).increment(nonZeroTFIDFs);
+    }
+}
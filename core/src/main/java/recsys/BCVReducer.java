@@ -0,0 +1,65 @@
+package recsys;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Gathers the TF.IDF of every term of a book into its Book Characteristic Vector.
+ *
+ * Books are partitioned across reducers, so memory per task is bounded by the vocabulary of a single book.
+ * With recsys.vocab.topterms (see VocabularyFilter) only the terms with the highest TF.IDF are kept.
+ *
+ * Input - from BCVMapper
+ *          Key - Book
+ *          Value - TermWeightWritable for every term of the book
+ * Output: A mapping between the term id and TF.IDF value of the term for that book, as a SparseVectorWritable.
+ * Ex.
+ * Book1 termId1=TF.IDF termId2=TF.IDF termId5=TF.IDF termId7=TF.IDF ...
+ * Book2
+ * ...
+ * Bookn
+ */
+public class BCVReducer extends Reducer<Text, TermWeightWritable, Text, SparseVectorWritable> {
+
+    public static final String NUM_REDUCERS = "recsys.bcv.reducers";
+
+    //Reused between books, grown to the largest book
+    private int[] termIds = new int[1024];
+    private double[] TFIDFs = new double[1024];
+
+    private VocabularyFilter vocabularyFilter;
+
+    //Bits per weight written (see QuantizedVector.BITS)
+    private int bits;
+
+    public void setup(Context context) {
+        vocabularyFilter = VocabularyFilter.fromConf(context.getConfiguration());
+        bits = context.getConfiguration().getInt(QuantizedVector.BITS, 64);
+    }
+
+    public void reduce(Text key, Iterable<TermWeightWritable> value, Context context) throws IOException, InterruptedException {
+        int numTerms = 0;
+
+        for(TermWeightWritable termWeight : value){
+            if(numTerms == termIds.length){
+                termIds = Arrays.copyOf(termIds, numTerms * 2);
+                TFIDFs = Arrays.copyOf(TFIDFs, numTerms * 2);
+            }
+            termIds[numTerms] = termWeight.getTermId();
+            TFIDFs[numTerms] = termWeight.getWeight();
+            numTerms++;
+        }
+
+        int numKept = vocabularyFilter.keepTopTerms(termIds, TFIDFs, numTerms);
+        context.getCounter(PipelineCounters.TRIMMED_TERMS).increment(numTerms - numKept);
+        numTerms = numKept;
+
+        SparseVector bcv = SparseVector.sorted(Arrays.copyOf(termIds, numTerms), Arrays.copyOf(TFIDFs, numTerms));
+
+        //Write book followed by its vector
+        context.write(key, new SparseVectorWritable(bcv, bits));
+    }
+}
@@ -0,0 +1,72 @@
+package recsys;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Blocked version of EuclidDMapper/EuclidDReducer.
+ *
+ * Every map task is given one pair of blocks of the BCV file (see BCVBlocks), loads only the books of those two
+ * blocks from the distributed cache file, and computes every distance between them in memory.
+ *
+ * Input - lines of the block pair file
+ *          Key - Not used
+ *          Value - "rowBlock colBlock" Ex. "2 5"
+ * Output - One record per pair of books
+ *          Key - BookPairWritable Book1_Book2
+ *          Value - Distance (see Similarity)
+ */
+public class BlockDistanceMapper extends Mapper<LongWritable, Text, BookPairWritable, DoubleWritable> {
+
+    private Similarity similarity;
+
+    private long pairsCompared = 0;
+    private long distanceNanos = 0;
+
+    public void setup(Context context) {
+        similarity = Similarities.fromConf(context.getConfiguration());
+    }
+
+    private void writeDistance(BCVBlocks.Book bookA, BCVBlocks.Book bookB, Context context) throws IOException, InterruptedException {
+        BCVBlocks.Book first = bookA.record <= bookB.record ? bookA : bookB;
+        BCVBlocks.Book second = first == bookA ? bookB : bookA;
+
+        long start = System.nanoTime();
+        double distance = first.distance(similarity, second);
+        distanceNanos += System.nanoTime() - start;
+        pairsCompared++;
+
+        context.write(new BookPairWritable(first.title, second.title), new DoubleWritable(distance));
+    }
+
+    public void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
+        BCVBlocks blocks = BCVBlocks.load(context.getConfiguration(), "fourthInput", value);
+        List<BCVBlocks.Book> rows = blocks.rows;
+
+        if(blocks.isDiagonal()){
+            //Diagonal block, compare every book with itself and the books after it
+            for(int i = 0; i < rows.size(); i++){
+                for(int j = i; j < rows.size(); j++){
+                    writeDistance(rows.get(i), rows.get(j), context);
+                }
+            }
+            return;
+        }
+
+        for(BCVBlocks.Book rowBook : rows){
+            for(BCVBlocks.Book colBook : blocks.cols){
+                writeDistance(rowBook, colBook, context);
+            }
+        }
+    }
+
+    public void cleanup(Context context) {
+        context.getCounter(PipelineCounters.PAIRS_COMPARED).increment(pairsCompared);
+        context.getCounter(PipelineCounters.DISTANCE_MILLIS).increment(distanceNanos / 1000000);
+    }
+}
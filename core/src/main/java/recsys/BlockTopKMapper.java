@@ -0,0 +1,79 @@
+package recsys;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Top-K version of BlockDistanceMapper.
+ *
+ * All the books of the two blocks are in memory, so every book keeps a bounded heap of its nearest neighbours
+ * within the blocks and only those K are written. TopKReducer then merges the candidates of every block.
+ *
+ * Input - lines of the block pair file
+ *          Key - Not used
+ *          Value - "rowBlock colBlock" Ex. "2 5"
+ * Output - At most K candidate neighbours per book
+ *          Key - Book
+ *          Value - NeighbourWritable (Neighbour, distance)
+ */
+public class BlockTopKMapper extends Mapper<LongWritable, Text, Text, NeighbourWritable> {
+
+    private int topK;
+    private Similarity similarity;
+
+    private long pairsCompared = 0;
+    private long distanceNanos = 0;
+
+    public void setup(Context context) {
+        topK = context.getConfiguration().getInt(TopKReducer.TOP_K, 30);
+        similarity = Similarities.fromConf(context.getConfiguration());
+    }
+
+    public void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
+        BCVBlocks blocks = BCVBlocks.load(context.getConfiguration(), "fourthInput", value);
+
+        //Rows followed by columns, heap ids are indexes into this list
+        List<BCVBlocks.Book> books = new ArrayList<BCVBlocks.Book>(blocks.rows);
+        books.addAll(blocks.cols);
+
+        TopKHeap[] nearest = new TopKHeap[books.size()];
+        for(int i = 0; i < nearest.length; i++){
+            nearest[i] = new TopKHeap(topK);
+        }
+
+        long startTime = System.nanoTime();
+
+        int numRows = blocks.rows.size();
+        for(int i = 0; i < numRows; i++){
+            //Diagonal blocks compare the books after it in the row block, others every book of the column block
+            int start = blocks.isDiagonal() ? i + 1 : numRows;
+
+            for(int j = start; j < books.size(); j++){
+                double distance = books.get(i).distance(similarity, books.get(j));
+
+                nearest[i].offer(j, distance);
+                nearest[j].offer(i, distance);
+            }
+            pairsCompared += books.size() - start;
+        }
+
+        distanceNanos += System.nanoTime() - startTime;
+
+        for(int i = 0; i < books.size(); i++){
+            Text book = new Text(books.get(i).title);
+            for(int n = 0; n < nearest[i].size(); n++){
+                context.write(book, new NeighbourWritable(books.get(nearest[i].id(n)).title, nearest[i].distance(n)));
+            }
+        }
+    }
+
+    public void cleanup(Context context) {
+        context.getCounter(PipelineCounters.PAIRS_COMPARED).increment(pairsCompared);
+        context.getCounter(PipelineCounters.DISTANCE_MILLIS).increment(distanceNanos / 1000000);
+    }
+}
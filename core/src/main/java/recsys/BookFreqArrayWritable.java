@@ -0,0 +1,31 @@
+package recsys;
+
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.Writable;
+
+/**
+ * Every book a term appears in. Output value of the second job.
+ */
+public class BookFreqArrayWritable extends ArrayWritable {
+
+    public BookFreqArrayWritable() {
+        super(BookFreqWritable.class);
+    }
+
+    public BookFreqArrayWritable(BookFreqWritable[] bookFreqs) {
+        super(BookFreqWritable.class, bookFreqs);
+    }
+
+    /**
+     * Same format as the text output of the second job. Ex. |L_10/213|K_12/100
+     */
+    public String toString(){
+        StringBuilder output = new StringBuilder();
+
+        for(Writable bookFreq : get()){
+            output.append(bookFreq);
+        }
+
+        return output.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package recsys;
+
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Key of the TermFreq job: a book and the occurrences of one of its terms.
+ *
+ * Sorted by book, then most occurrences first, so the first value a reducer sees for a book is its most frequent
+ * term. Partitioner and GroupingComparator only look at the book, so all the terms of a book go to one reduce call.
+ */
+public class BookFreqKeyWritable implements WritableComparable<BookFreqKeyWritable> {
+
+    private String book;
+    private int freq;
+
+    public BookFreqKeyWritable() {
+    }
+
+    public void set(String book, int freq){
+        this.book = book;
+        this.freq = freq;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public int getFreq() {
+        return freq;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeString(out, book);
+        WritableUtils.writeVInt(out, freq);
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        book = WritableUtils.readString(in);
+        freq = WritableUtils.readVInt(in);
+    }
+
+    public int compareTo(BookFreqKeyWritable other) {
+        int cmp = book.compareTo(other.book);
+        return cmp != 0 ? cmp : (freq > other.freq ? -1 : (freq == other.freq ? 0 : 1));
+    }
+
+    public boolean equals(Object o){
+        if(!(o instanceof BookFreqKeyWritable)){
+            return false;
+        }
+        BookFreqKeyWritable other = (BookFreqKeyWritable) o;
+        return book.equals(other.book) && freq == other.freq;
+    }
+
+    public int hashCode(){
+        return book.hashCode() * 31 + freq;
+    }
+
+    public String toString(){
+        return book + " " + freq;
+    }
+
+    /**
+     * Sends every term of a book to the same reducer
+     */
+    public static class BookPartitioner<V> extends Partitioner<BookFreqKeyWritable, V> {
+        public int getPartition(BookFreqKeyWritable key, V value, int numPartitions) {
+            return (key.book.hashCode() & Integer.MAX_VALUE) % numPartitions;
+        }
+    }
+
+    /**
+     * Groups the terms of a book into one reduce call, whatever their occurrences
+     */
+    public static class GroupingComparator extends WritableComparator {
+        public GroupingComparator() {
+            super(BookFreqKeyWritable.class, true);
+        }
+
+        public int compare(WritableComparable a, WritableComparable b) {
+            return ((BookFreqKeyWritable) a).book.compareTo(((BookFreqKeyWritable) b).book);
+        }
+    }
+}
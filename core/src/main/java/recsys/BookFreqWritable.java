@@ -0,0 +1,67 @@
+package recsys;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Occurrences of a term in a book, with the frequency the term frequency is normalized by.
+ * Replaces the "|BookTitle_freq/maxFreq" strings of the second job.
+ */
+public class BookFreqWritable implements Writable {
+
+    private String book;
+    private int freq;
+    private int maxFreq;
+
+    public BookFreqWritable() {
+    }
+
+    public BookFreqWritable(String book, int freq, int maxFreq) {
+        set(book, freq, maxFreq);
+    }
+
+    public void set(String book, int freq, int maxFreq){
+        this.book = book;
+        this.freq = freq;
+        this.maxFreq = maxFreq;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public int getFreq() {
+        return freq;
+    }
+
+    public int getMaxFreq() {
+        return maxFreq;
+    }
+
+    public double getNormalizedFreq(){
+        return TfIdf.tf(freq, maxFreq);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeString(out, book);
+        WritableUtils.writeVInt(out, freq);
+        WritableUtils.writeVInt(out, maxFreq);
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        book = WritableUtils.readString(in);
+        freq = WritableUtils.readVInt(in);
+        maxFreq = WritableUtils.readVInt(in);
+    }
+
+    /**
+     * Same format as the text output of the second job. Ex. |L_10/213
+     */
+    public String toString(){
+        return "|" + book + "_" + freq + "/" + maxFreq;
+    }
+}
@@ -0,0 +1,183 @@
+package recsys;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileRecordReader;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads whole Project Gutenberg files, one record per book, packing many files into each split so small books do
+ * not each get their own map task. Files are never split, so a book is always read by one mapper.
+ *
+ * Output - one record for every "*** START OF" ... "*** END OF" body (see GutenbergText)
+ *          Key - Title of the book, from the "Title:" line before the body ("UNKNOWN" without one)
+ *          Value - Body of the book, the lines between the START and END lines
+ *
+ * -D recsys.books.splitsize=bytes sets the most bytes of files in one split (64 MB by default).
+ */
+public class BookInputFormat extends CombineFileInputFormat<Text, Text> {
+
+    public static final String SPLIT_SIZE = "recsys.books.splitsize";
+
+    public List<InputSplit> getSplits(JobContext job) throws IOException {
+        setMaxSplitSize(job.getConfiguration().getLong(SPLIT_SIZE, 64L * 1024 * 1024));
+        return super.getSplits(job);
+    }
+
+    protected boolean isSplitable(JobContext context, Path file) {
+        return false;
+    }
+
+    public RecordReader<Text, Text> createRecordReader(InputSplit split, TaskAttemptContext context) throws IOException {
+        return new CombineFileRecordReader<Text, Text>((CombineFileSplit) split, context, BookRecordReader.class);
+    }
+
+    /**
+     * Reads the file at one index of a CombineFileSplit, finding the title and body of every book in it
+     *
+     * Counts the lines outside the bodies as SKIPPED_LINES (PipelineCounters).
+     */
+    public static class BookRecordReader extends RecordReader<Text, Text> {
+
+        private final Path file;
+        private final long length;
+
+        private byte[] bytes;
+
+        //Title and body bounds of every book of the file, in file order
+        private final List<String> titles = new ArrayList<String>();
+        private final List<int[]> bodies = new ArrayList<int[]>();
+
+        private int book = -1;
+
+        private final Text title = new Text();
+        private final Text body = new Text();
+
+        public BookRecordReader(CombineFileSplit split, TaskAttemptContext context, Integer index) {
+            this.file = split.getPath(index);
+            this.length = split.getLength(index);
+        }
+
+        public void initialize(InputSplit split, TaskAttemptContext context) throws IOException {
+            if(length > Integer.MAX_VALUE){
+                throw new IOException(file + " is too large to be read as one book");
+            }
+
+            bytes = new byte[(int) length];
+
+            FileSystem fs = file.getFileSystem(context.getConfiguration());
+            FSDataInputStream in = fs.open(file);
+            try {
+                in.readFully(0, bytes);
+            }
+            finally {
+                in.close();
+            }
+
+            long skippedLines = findBooks();
+            context.getCounter(PipelineCounters.SKIPPED_LINES).increment(skippedLines);
+        }
+
+        /**
+         * Same rules as FreqMapper line by line: "Title:" lines are only looked for outside the bodies
+         * @return the number of non empty lines outside the bodies
+         */
+        private long findBooks(){
+            long skippedLines = 0;
+
+            String currentTitle = "UNKNOWN"; //Default if the title of book DNE
+            int bodyStart = -1; //-1 outside of a body
+
+            int lineStart = 0;
+            while(lineStart < bytes.length){
+                int lineEnd = lineStart;
+                while(lineEnd < bytes.length && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r'){
+                    lineEnd++;
+                }
+
+                int start = lineStart;
+                lineStart = lineEnd + 1;
+
+                if(lineEnd == start){
+                    continue;
+                }
+
+                if(GutenbergText.contains(bytes, start, lineEnd, GutenbergText.START)){
+                    if(bodyStart >= 0){
+                        addBook(currentTitle, bodyStart, start);
+                    }
+                    bodyStart = Math.min(lineStart, bytes.length);
+                    continue;
+                }
+
+                if(GutenbergText.contains(bytes, start, lineEnd, GutenbergText.END)){
+                    if(bodyStart >= 0){
+                        addBook(currentTitle, bodyStart, start);
+                    }
+                    bodyStart = -1;
+                    continue;
+                }
+
+                if(bodyStart < 0){
+                    if(GutenbergText.contains(bytes, start, lineEnd, GutenbergText.TITLE)){
+                        currentTitle = GutenbergText.parseTitle(new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8));
+                    }
+                    skippedLines++;
+                }
+            }
+
+            if(bodyStart >= 0){ //No END line, the body runs to the end of the file
+                addBook(currentTitle, bodyStart, bytes.length);
+            }
+
+            return skippedLines;
+        }
+
+        private void addBook(String bookTitle, int start, int end){
+            if(end > start){
+                titles.add(bookTitle);
+                bodies.add(new int[]{start, end});
+            }
+        }
+
+        public boolean nextKeyValue() {
+            book++;
+            if(book >= titles.size()){
+                return false;
+            }
+
+            int[] bounds = bodies.get(book);
+            title.set(titles.get(book));
+            body.set(bytes, bounds[0], bounds[1] - bounds[0]);
+            return true;
+        }
+
+        public Text getCurrentKey() {
+            return title;
+        }
+
+        public Text getCurrentValue() {
+            return body;
+        }
+
+        public float getProgress() {
+            return titles.isEmpty() ? 1.0f : Math.min(1.0f, (float) book / titles.size());
+        }
+
+        public void close() {
+            bytes = null;
+        }
+    }
+}
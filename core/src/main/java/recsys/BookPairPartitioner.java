@@ -0,0 +1,25 @@
+package recsys;
+
+import org.apache.hadoop.mapreduce.Partitioner;
+
+/**
+ * Spreads the pairs of books evenly over the reducers of the allpairs fourth job.
+ *
+ * The hash codes of titles that only differ at the end (book1, book2 ...) are close to each other, so both are mixed
+ * into 64 bits before taking the partition, instead of the default hashCode % numPartitions.
+ */
+public class BookPairPartitioner<V> extends Partitioner<BookPairWritable, V> {
+
+    public int getPartition(BookPairWritable key, V value, int numPartitions) {
+        long hash = ((long) key.getBook1().hashCode() << 32) | (key.getBook2().hashCode() & 0xFFFFFFFFL);
+
+        //Finalizer of MurmurHash3, every bit of the input changes half of the output bits
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+
+        return (int) ((hash >>> 1) % numPartitions);
+    }
+}
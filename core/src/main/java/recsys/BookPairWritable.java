@@ -0,0 +1,71 @@
+package recsys;
+
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Key of the fourth job: the two books a distance belongs to.
+ */
+public class BookPairWritable implements WritableComparable<BookPairWritable> {
+
+    private String book1;
+    private String book2;
+
+    public BookPairWritable() {
+    }
+
+    public BookPairWritable(String book1, String book2) {
+        set(book1, book2);
+    }
+
+    public void set(String book1, String book2){
+        this.book1 = book1;
+        this.book2 = book2;
+    }
+
+    public String getBook1() {
+        return book1;
+    }
+
+    public String getBook2() {
+        return book2;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeString(out, book1);
+        WritableUtils.writeString(out, book2);
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        book1 = WritableUtils.readString(in);
+        book2 = WritableUtils.readString(in);
+    }
+
+    public int compareTo(BookPairWritable other) {
+        int cmp = book1.compareTo(other.book1);
+        return cmp != 0 ? cmp : book2.compareTo(other.book2);
+    }
+
+    public boolean equals(Object o){
+        if(!(o instanceof BookPairWritable)){
+            return false;
+        }
+        BookPairWritable other = (BookPairWritable) o;
+        return book1.equals(other.book1) && book2.equals(other.book2);
+    }
+
+    public int hashCode(){
+        return book1.hashCode() * 31 + book2.hashCode();
+    }
+
+    /**
+     * Same format as the text output of the fourth job. Ex. book1_book2
+     */
+    public String toString(){
+        return book1 + "_" + book2;
+    }
+}
@@ -0,0 +1,143 @@
+package recsys;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Created by ydubale on 3/20/15.
+ */
+public class CLI {
+
+    //Nearest books of every book, most similar first (SimilarityIndex or MappedSimilarityIndex)
+    private final RecommendationIndex similarityIndex;
+
+    private final int numSimilarBooksToReturn;
+
+    //Seed sets whose recommendations are cached
+    private static final int CACHE_SIZE = 1024;
+
+    private final SeedRecommender recommender;
+
+    /**
+     * File format:
+     * book1_book2 value1
+     * book1_book3 value2
+     * ...
+     *
+     * or a binary index file written by IndexCompiler, which is memory mapped instead of loaded.
+     *
+     * @param fileName - output of the fourth job (a file or a directory of part files) or an index file
+     * @param numSimilarBooksToReturn - number of similar books kept for every book
+     * @throws IOException
+     */
+    public CLI(String fileName, int numSimilarBooksToReturn) throws IOException {
+        this.numSimilarBooksToReturn = numSimilarBooksToReturn;
+
+        File mapReduceJobOutput = new File(fileName);
+        if(!mapReduceJobOutput.exists()){
+            throw new FileNotFoundException(fileName);
+        }
+
+        RecommendationIndex index = null;
+        try {
+            index = SimilarityIndex.open(mapReduceJobOutput, numSimilarBooksToReturn);
+        } catch (IOException e) {
+            //e.printStackTrace();
+            System.out.println("Could not read line in file.");
+            System.exit(1);
+        }
+        similarityIndex = index;
+        recommender = new SeedRecommender(similarityIndex, CACHE_SIZE);
+
+        System.out.println("Indexed " + similarityIndex.size() + " books. Enter ? to list them.");
+    }
+
+    private void printTitles(){
+        for(int id = 0; id < similarityIndex.size(); id++){
+            System.out.println("Title: " + similarityIndex.getTitle(id)); //Print all available titles
+        }
+    }
+
+    /**
+     * Prints out a list of similar books to given bookToSearch, most similar first
+     * @param bookToSearch
+     */
+    private void getSimilarBooks(String bookToSearch) {
+        int book = similarityIndex.getId(bookToSearch);
+
+        if(book < 0){
+            System.out.println("Book is not found. Check spelling.");
+            return;
+        }
+
+        int numSimilarBooks = Math.min(numSimilarBooksToReturn, similarityIndex.neighbourCount(book));
+        for(int i = 0; i < numSimilarBooks; i++){
+            String similarBook = similarityIndex.getTitle(similarityIndex.neighbour(book, i));
+            System.out.println("\t" + (i + 1) + " " + similarBook + " " + similarityIndex.distance(book, i));
+        }
+
+    }
+
+    /**
+     * Prints the books most like all of the given books (Ex. a reading history), best first, see SeedRecommender
+     */
+    private void getBooksLikeThese(String[] booksToSearch) {
+        int[] seeds = new int[booksToSearch.length];
+        for(int i = 0; i < booksToSearch.length; i++){
+            seeds[i] = similarityIndex.getId(booksToSearch[i]);
+            if(seeds[i] < 0){
+                System.out.println("Book is not found, left out: " + booksToSearch[i]);
+            }
+        }
+
+        SeedRecommender.Recommendations recommendations = recommender.recommend(seeds, numSimilarBooksToReturn);
+        for(int i = 0; i < recommendations.size(); i++){
+            String similarBook = similarityIndex.getTitle(recommendations.ids[i]);
+            System.out.println("\t" + (i + 1) + " " + similarBook + " " + recommendations.scores[i]);
+        }
+        System.out.println("(" + recommender.cacheStats() + ")");
+    }
+
+    /**
+     * Usage: CLI [similarityFile] [numSimilarBooks]
+     * Enter one title for its similar books, or several titles separated by spaces for the books most like all of them
+     */
+    public static void main(String[] args){
+        String fileName = args.length > 0 ? args[0] : "FINAL_600.txt";
+        int numSimilarBooks = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        try {
+            CLI cli = new CLI(fileName, numSimilarBooks);
+
+            Scanner scan = new Scanner(System.in);
+
+            while(true){
+                System.out.println("Enter the name of a book (or several, separated by spaces): ");
+                if(!scan.hasNextLine()){
+                    break;
+                }
+                String[] booksToSearch = scan.nextLine().trim().split("\\s+"); //Titles have no white space
+                if(booksToSearch[0].isEmpty()){
+                    continue;
+                }
+                if(booksToSearch[0].equals("?")){
+                    cli.printTitles();
+                    continue;
+                }
+                if(booksToSearch.length == 1){
+                    cli.getSimilarBooks(booksToSearch[0]);
+                    continue;
+                }
+                cli.getBooksLikeThese(booksToSearch);
+            }
+
+        } catch (FileNotFoundException e) {
+            System.out.println("Input file is not found! " + fileName);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+}
@@ -0,0 +1,22 @@
+package recsys;
+
+/**
+ * Cosine distance (1 - cosine similarity) between the TF.IDF vectors.
+ *
+ * Vectors are scaled to unit length when loaded, so every distance is a single sparse dot product that only does
+ * work for the terms both books share.
+ */
+public class CosineSimilarity implements Similarity {
+
+    public SparseVector prepare(SparseVector bcv) {
+        return bcv.normalized();
+    }
+
+    public double distance(SparseVector bcv1, SparseVector bcv2) {
+        return Math.max(0, 1 - bcv1.dot(bcv2)); //Rounding can take the dot product of a book with itself above 1
+    }
+
+    public double distance(QuantizedVector bcv1, QuantizedVector bcv2) {
+        return Math.max(0, 1 - bcv1.dot(bcv2));
+    }
+}
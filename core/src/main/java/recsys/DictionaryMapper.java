@@ -0,0 +1,48 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+
+/**
+ * Counts the books every term appears in, and the books of the corpus.
+ *
+ * Input - output of FreqReducer
+ *          Key - Not used
+ *          Value - line "Word Title Occurrences" Ex. A L 10
+ * Output - One record for every book the term appears in
+ *          Key - Word
+ *          Value - 1
+ *        - One record for every line, counted once per book by DictionaryReducer (the combiner merges them)
+ *          Key - BOOK_MARKER Title Ex. #L
+ *          Value - 1
+ */
+public class DictionaryMapper extends Mapper<Object, Text, Text, IntWritable> {
+
+    //Terms are only made of a-z and 1-9 (see Tokenizer), so no term starts with it
+    public static final String BOOK_MARKER = "#";
+
+    private static final IntWritable one = new IntWritable(1);
+
+    private final Text term = new Text();
+    private final Text book = new Text();
+
+    public void map(Object key, Text value, Context context) throws IOException, InterruptedException {
+        String line = value.toString(); //Ex. A L 10
+
+        int space = line.indexOf(' ');
+        if(space <= 0){
+            context.getCounter(PipelineCounters.PARSE_FAILURES).increment(1);
+            return;
+        }
+
+        term.set(line.substring(0, space)); //A
+        context.write(term, one);
+
+        int end = line.indexOf('\t', space + 1);
+        book.set(BOOK_MARKER + line.substring(space + 1, end < 0 ? line.length() : end)); //#L
+        context.write(book, one);
+    }
+}
@@ -0,0 +1,84 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the term dictionary. Must run as a single reducer so every term gets a unique id.
+ *
+ * Cleanup is used because ids are given in order of document frequency, which is only known once every term has
+ * been reduced. The vocabulary is expected to fit in memory (see TermFreqMapper).
+ *
+ * Input -
+ *      Key - Word
+ *      Value - List of book counts from DictionaryMapper (or the combiner)
+ * Output - Terms ordered by document frequency, most common first
+ *      Key - Word
+ *      Value - "id documentFrequency"
+ * Example:
+ *      the 0 600
+ *      and 1 598
+ *      ...
+ *
+ * Book records of DictionaryMapper are not written, they are counted in the PipelineCounters.BOOKS counter.
+ * Terms outside the document frequency limits of VocabularyFilter get no id.
+ */
+public class DictionaryReducer extends Reducer<Text, IntWritable, Text, Text> {
+
+    //Most common terms first, ties broken by the term so ids are stable between runs
+    public static final Comparator<Map.Entry<String, Integer>> BY_DOC_FREQ = new Comparator<Map.Entry<String, Integer>>() {
+        public int compare(Map.Entry<String, Integer> term1, Map.Entry<String, Integer> term2) {
+            int cmp = term2.getValue().compareTo(term1.getValue());
+            return cmp != 0 ? cmp : term1.getKey().compareTo(term2.getKey());
+        }
+    };
+
+    private final Map<String, Integer> termToBookOccurance = new HashMap<String, Integer>();
+
+    private long totalNumBooks = 0;
+
+    public void reduce(Text key, Iterable<IntWritable> value, Context context) throws IOException, InterruptedException {
+        if(key.toString().startsWith(DictionaryMapper.BOOK_MARKER)){
+            context.getCounter(PipelineCounters.BOOKS).increment(1);
+            totalNumBooks++;
+            return;
+        }
+
+        int numBooks = 0;
+
+        for(IntWritable val : value){
+            numBooks += val.get();
+        }
+
+        termToBookOccurance.put(key.toString(), numBooks);
+    }
+
+    public void cleanup(Context context) throws IOException, InterruptedException {
+        VocabularyFilter vocabularyFilter = VocabularyFilter.fromConf(context.getConfiguration());
+
+        List<Map.Entry<String, Integer>> terms = new ArrayList<Map.Entry<String, Integer>>();
+        for(Map.Entry<String, Integer> term : termToBookOccurance.entrySet()){
+            if(vocabularyFilter.keepsDocFreq(term.getValue(), totalNumBooks)){
+                terms.add(term);
+            }
+        }
+        context.getCounter(PipelineCounters.FILTERED_TERMS).increment(termToBookOccurance.size() - terms.size());
+
+        Collections.sort(terms, BY_DOC_FREQ);
+
+        int id = 0;
+        for(Map.Entry<String, Integer> term : terms){
+            context.write(new Text(term.getKey()), new Text(id + " " + term.getValue()));
+            id++;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fourth job on a single node over dense embeddings of the books (see Embeddings): distances are approximate, but
+ * every comparison is a fixed width pass over contiguous floats, run in parallel on a fork/join pool.
+ *
+ * Input - the BCV output of the third job (thirdJobOutput)
+ * Output - same format as the fourth job
+ *      book1_book2 distance
+ *      ...
+ *
+ * Usage: EmbeddingSearch [-D recsys.embedding.dims=64] [-D recsys.similarity=cosine] bcvDir outputFile [topK] [threads]
+ * With topK > 0 only the K nearest neighbours of every book are written, closest first, otherwise the distance of
+ * every pair once. RecommendationSystem runs it with -D recsys.fourth.mode=dense.
+ */
+public class EmbeddingSearch {
+
+    //Rows of distances computed by one task
+    private static final int ROWS_PER_TASK = 8;
+
+    private final ForkJoinPool pool;
+
+    public EmbeddingSearch(int threads) {
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Computes the distances of the rows [low, high) and writes them. Without top-K row i is compared with the books
+     * from i on (the upper triangle, including itself), with top-K with every other book.
+     */
+    private static class DistanceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Embeddings embeddings;
+        private final int topK;
+        private final Writer out;
+        private final int low;
+        private final int high;
+
+        private DistanceTask(Embeddings embeddings, int topK, Writer out, int low, int high) {
+            this.embeddings = embeddings;
+            this.topK = topK;
+            this.out = out;
+            this.low = low;
+            this.high = high;
+        }
+
+        protected void compute() {
+            if(high - low > ROWS_PER_TASK){
+                int mid = (low + high) >>> 1;
+                invokeAll(new DistanceTask(embeddings, topK, out, low, mid), new DistanceTask(embeddings, topK, out, mid, high));
+                return;
+            }
+
+            StringBuilder lines = new StringBuilder();
+            TopKHeap nearest = topK > 0 ? new TopKHeap(topK) : null;
+
+            for(int i = low; i < high; i++){
+                if(nearest == null){
+                    for(int j = i; j < embeddings.size(); j++){
+                        appendLine(lines, i, j, embeddings.distance(i, j));
+                    }
+                    continue;
+                }
+
+                nearest.clear();
+                for(int j = 0; j < embeddings.size(); j++){
+                    if(j != i){
+                        nearest.offer(j, embeddings.distance(i, j));
+                    }
+                }
+                nearest.sort();
+                for(int n = 0; n < nearest.size(); n++){
+                    appendLine(lines, i, nearest.id(n), nearest.distance(n));
+                }
+            }
+
+            try {
+                synchronized (out) {
+                    out.write(lines.toString());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not write distances", e);
+            }
+        }
+
+        private void appendLine(StringBuilder lines, int book1, int book2, double distance){
+            lines.append(embeddings.titles[book1]).append('_').append(embeddings.titles[book2]).append('\t').append(distance).append('\n');
+        }
+    }
+
+    public void writeDistances(Embeddings embeddings, int topK, Writer out) {
+        pool.invoke(new DistanceTask(embeddings, topK, out, 0, embeddings.size()));
+    }
+
+    public void shutdown(){
+        pool.shutdown();
+    }
+
+    /**
+     * Projects the books of the BCV output and writes their distances to outputPath, on any file system
+     */
+    public static void run(Configuration conf, Path bcvPath, Path outputPath, int topK, int threads) throws IOException {
+        long start = System.currentTimeMillis();
+        Embeddings embeddings = Embeddings.read(conf, bcvPath, RandomProjection.fromConf(conf));
+        System.out.println("Embeddings of " + embeddings.size() + " books (" + embeddings.dimensions + " dimensions) in " + (System.currentTimeMillis() - start) + " ms");
+
+        EmbeddingSearch search = new EmbeddingSearch(threads);
+        FileSystem fs = outputPath.getFileSystem(conf);
+        Writer out = new BufferedWriter(new OutputStreamWriter(fs.create(outputPath, true), StandardCharsets.UTF_8));
+        try {
+            start = System.currentTimeMillis();
+            search.writeDistances(embeddings, topK, out);
+            System.out.println("Distances in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        finally {
+            out.close();
+            search.shutdown();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs(); //Allows -D recsys.embedding.dims=128 etc.
+
+        if(args.length < 2){
+            System.out.println("Usage: EmbeddingSearch [-D recsys.embedding.dims=64] [-D recsys.similarity=cosine] bcvDir outputFile [topK] [threads]");
+            System.exit(1);
+        }
+
+        int topK = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        run(conf, new Path(args[0]), new Path(args[1]), topK, threads);
+    }
+}
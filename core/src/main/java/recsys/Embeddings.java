@@ -0,0 +1,179 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense embeddings of the books (see RandomProjection), stored row after row in one float array so a distance is a
+ * pass over two contiguous ranges instead of a merge of two sparse vectors.
+ *
+ * For cosine distances every embedding is scaled to unit length, so a distance is 1 - dot product like
+ * CosineSimilarity.
+ *
+ * The kernels are plain loops with four independent sums, which the JIT unrolls and schedules without waiting on a
+ * single accumulator. The Vector API is still an incubator module on the JDKs this builds for, so it is not used.
+ */
+public class Embeddings {
+
+    public final String[] titles;
+    public final int dimensions;
+
+    //Embedding of book i in [i * dimensions, (i + 1) * dimensions)
+    public final float[] data;
+
+    private final boolean cosine;
+
+    public Embeddings(String[] titles, int dimensions, float[] data, boolean cosine) {
+        this.titles = titles;
+        this.dimensions = dimensions;
+        this.data = data;
+        this.cosine = cosine;
+
+        if(cosine){
+            for(int i = 0; i < titles.length; i++){
+                normalize(i);
+            }
+        }
+    }
+
+    /**
+     * Projects the vectors of the books
+     * @param cosine - true for cosine distances, false for Euclidean distances
+     */
+    public static Embeddings project(String[] titles, SparseVector[] bcvs, RandomProjection projection, boolean cosine){
+        int dimensions = projection.getDimensions();
+        float[] data = new float[titles.length * dimensions];
+
+        for(int i = 0; i < bcvs.length; i++){
+            projection.project(bcvs[i], data, i * dimensions);
+        }
+        return new Embeddings(titles, dimensions, data, cosine);
+    }
+
+    /**
+     * Reads and projects every book of the BCV output (SequenceFiles of book, SparseVectorWritable written by the
+     * third job), in part order
+     */
+    public static Embeddings read(Configuration conf, Path bcvPath, RandomProjection projection) throws IOException {
+        if(conf.get(Similarity.SIMILARITY, Similarities.EUCLIDEAN).equals(Similarities.JACCARD)){
+            //A random projection keeps dot products and Euclidean distances, not Jaccard
+            throw new IllegalArgumentException("Embeddings only compute Euclidean or cosine distances");
+        }
+        boolean cosine = conf.get(Similarity.SIMILARITY, Similarities.EUCLIDEAN).equals(Similarities.COSINE);
+        Similarity similarity = Similarities.fromConf(conf);
+
+        FileStatus[] parts = BCVBlocks.listParts(bcvPath.getFileSystem(conf), bcvPath);
+
+        int dimensions = projection.getDimensions();
+        List<String> titles = new ArrayList<String>();
+        float[] data = new float[1024 * dimensions];
+
+        Text title = new Text();
+        SparseVectorWritable vector = new SparseVectorWritable();
+
+        for(FileStatus part : parts){
+            SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(part.getPath()));
+            try {
+                while(reader.next(title, vector)){
+                    int offset = titles.size() * dimensions;
+                    if(offset == data.length){
+                        data = Arrays.copyOf(data, data.length * 2);
+                    }
+
+                    projection.project(similarity.prepare(vector.get()), data, offset);
+                    titles.add(title.toString());
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+
+        return new Embeddings(titles.toArray(new String[titles.size()]), dimensions, Arrays.copyOf(data, titles.size() * dimensions), cosine);
+    }
+
+    private void normalize(int book){
+        int offset = book * dimensions;
+        double norm = Math.sqrt(dot(data, offset, data, offset, dimensions));
+        if(norm == 0){
+            return;
+        }
+
+        for(int d = offset; d < offset + dimensions; d++){
+            data[d] = (float) (data[d] / norm);
+        }
+    }
+
+    public int size(){
+        return titles.length;
+    }
+
+    /**
+     * Distance between books i and j, Euclidean or cosine like the Similarity of the run
+     */
+    public double distance(int i, int j){
+        if(cosine){
+            return Math.max(0, 1 - dot(data, i * dimensions, data, j * dimensions, dimensions));
+        }
+        return Math.sqrt(squaredDistance(data, i * dimensions, data, j * dimensions, dimensions));
+    }
+
+    /**
+     * Squared Euclidean distance between a[aOffset .. aOffset + length) and b[bOffset .. bOffset + length)
+     */
+    public static double squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int length){
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+
+        int i = 0;
+        for(; i + 3 < length; i += 4){
+            float diff0 = a[aOffset + i] - b[bOffset + i];
+            float diff1 = a[aOffset + i + 1] - b[bOffset + i + 1];
+            float diff2 = a[aOffset + i + 2] - b[bOffset + i + 2];
+            float diff3 = a[aOffset + i + 3] - b[bOffset + i + 3];
+            sum0 += diff0 * diff0;
+            sum1 += diff1 * diff1;
+            sum2 += diff2 * diff2;
+            sum3 += diff3 * diff3;
+        }
+        for(; i < length; i++){
+            float diff = a[aOffset + i] - b[bOffset + i];
+            sum0 += diff * diff;
+        }
+
+        return (double) sum0 + sum1 + sum2 + sum3;
+    }
+
+    /**
+     * Dot product of a[aOffset .. aOffset + length) and b[bOffset .. bOffset + length)
+     */
+    public static double dot(float[] a, int aOffset, float[] b, int bOffset, int length){
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+
+        int i = 0;
+        for(; i + 3 < length; i += 4){
+            sum0 += a[aOffset + i] * b[bOffset + i];
+            sum1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            sum2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            sum3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for(; i < length; i++){
+            sum0 += a[aOffset + i] * b[bOffset + i];
+        }
+
+        return (double) sum0 + sum1 + sum2 + sum3;
+    }
+}
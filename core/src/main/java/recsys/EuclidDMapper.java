@@ -0,0 +1,146 @@
+package recsys;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Reads the text export of the BCV file (distributed cache). Row i is compared with the books after it, so rows are
+ * handed out in pairs i and N-1-i (see RecommendationSystem.writeRowPairs): every pair of rows is N-1 comparisons
+ * and every map task gets the same number of pairs of rows.
+ *
+ * Input - lines of the row pair file
+ *          Key - Not used
+ *          Value - "row otherRow" Ex. "3 96" (the middle row of an odd number of rows is alone)
+ * Outputs, for every term of either book:
+ * Book1_Book2 (TF.IDF1 - TF.IDF2)^2
+ * Book1_Book3 (TF.IDF1 - TF.IDF3)^2
+ * ...
+ *
+ * Counts PAIRS_COMPARED (PipelineCounters), published in cleanup.
+ */
+public class EuclidDMapper extends Mapper<LongWritable, Text, BookPairWritable, DoubleWritable> {
+
+    private RandomAccessFile randomAccessFile;
+
+    //Offset of every line of the file
+    private long[] rowOffsets;
+
+    private long pairsCompared = 0;
+
+    /**
+     * Writes the difference squared of the TF.IDFs of both books for every term that appears in either book
+     * (0 if a book does not have it)
+     */
+    private void writeTermPairs(BookPairWritable outKey, SparseVector book1, SparseVector book2, Context context) throws IOException, InterruptedException {
+        int i = 0;
+        int j = 0;
+
+        while(i < book1.size() || j < book2.size()){
+            double tfidf1 = 0;
+            double tfidf2 = 0;
+
+            if(j >= book2.size() || (i < book1.size() && book1.termId(i) < book2.termId(j))){
+                tfidf1 = book1.weight(i++);
+            }
+            else if(i >= book1.size() || book2.termId(j) < book1.termId(i)){
+                tfidf2 = book2.weight(j++);
+            }
+            else {
+                tfidf1 = book1.weight(i++);
+                tfidf2 = book2.weight(j++);
+            }
+
+            double diff = tfidf1 - tfidf2;
+            context.write(outKey, new DoubleWritable(diff * diff));
+        }
+    }
+
+    /**
+     * Initializes the randomAccessFile for reading the distributed cache file and finds where every line starts
+     * @param context
+     * @throws IOException
+     */
+    public void setup(Context context) throws IOException {
+        randomAccessFile = new RandomAccessFile("./fourthInput", "r");
+
+        long[] offsets = new long[1024];
+        int numRows = 0;
+
+        InputStream in = new BufferedInputStream(new FileInputStream("./fourthInput"), 1 << 16);
+        try {
+            long offset = 0;
+            boolean lineStart = true;
+            int b;
+            while((b = in.read()) != -1){
+                if(lineStart){
+                    if(numRows == offsets.length){
+                        offsets = Arrays.copyOf(offsets, numRows * 2);
+                    }
+                    offsets[numRows++] = offset;
+                }
+                lineStart = b == '\n';
+                offset++;
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        rowOffsets = Arrays.copyOf(offsets, numRows);
+    }
+
+    /**
+     * Outputs key two books and the difference squared of their TF.IDFs for each term, for the book of the row and
+     * every book after it
+     */
+    private void compareRow(int row, Context context) throws IOException, InterruptedException {
+
+        randomAccessFile.seek(rowOffsets[row]); //Jump to the line in the file to read the rest of it
+        //This is to allow comparison of the current book with the rest of the books in the file
+
+        String[] bookBCVs = randomAccessFile.readLine().split("\\s+");
+        String currBook = bookBCVs[0];
+
+        SparseVector book1 = SparseVector.parseBCV(bookBCVs);
+
+        String line;
+        //Write the current book as similar to itself
+        context.write(new BookPairWritable(currBook, currBook), new DoubleWritable(0));
+
+        //Read the rest of the book
+        while((line = randomAccessFile.readLine()) != null){
+
+            String[] otherBookBCV = line.split("\\s+");
+            String otherBook = otherBookBCV[0];
+
+            SparseVector book2 = SparseVector.parseBCV(otherBookBCV);
+
+            writeTermPairs(new BookPairWritable(currBook, otherBook), book1, book2, context);
+            pairsCompared++;
+        }
+    }
+
+    /**
+     * @param key - Not used
+     * @param value - rows to compare with the books after them Ex. "3 96"
+     */
+    public void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
+        for(String row : value.toString().trim().split("\\s+")){
+            compareRow(Integer.parseInt(row), context);
+        }
+    }
+
+    public void cleanup(Context context) throws IOException {
+        randomAccessFile.close();
+        context.getCounter(PipelineCounters.PAIRS_COMPARED).increment(pairsCompared);
+    }
+}
@@ -0,0 +1,35 @@
+package recsys;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+
+/**
+ * Outputs a similarity matrix of books
+ */
+public class EuclidDReducer extends Reducer<BookPairWritable, DoubleWritable, BookPairWritable, DoubleWritable> {
+
+    /**
+     * Writes out:
+     * Book1_book2 similarityValue
+     * @param key
+     * @param value - the difference squared of the two TF.IDFs of every term
+     * @param context
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void reduce(BookPairWritable key, Iterable<DoubleWritable> value, Context context) throws IOException, InterruptedException {
+
+        double sum = 0;
+
+        for(DoubleWritable diffSquared : value){
+            sum += diffSquared.get();
+        }
+
+        double euclidD = Math.sqrt(sum);
+
+        context.write(key, new DoubleWritable(euclidD));
+
+    }
+}
@@ -0,0 +1,19 @@
+package recsys;
+
+/**
+ * Euclidean distance between the TF.IDF vectors, the original measure of the fourth job.
+ */
+public class EuclideanSimilarity implements Similarity {
+
+    public SparseVector prepare(SparseVector bcv) {
+        return bcv;
+    }
+
+    public double distance(SparseVector bcv1, SparseVector bcv2) {
+        return bcv1.euclideanDistance(bcv2);
+    }
+
+    public double distance(QuantizedVector bcv1, QuantizedVector bcv2) {
+        return bcv1.euclideanDistance(bcv2);
+    }
+}
@@ -0,0 +1,165 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Created by ydubale on 3/29/15.
+ *
+ * Input - lines from each book
+ *          Key - Not used
+ *          Value - line
+ * Output - A intermediate mapping
+ *          Key - Word (space) Title
+ *          Value - Occurrences of the word (1 without in-mapper combining)
+ *
+ * With in-mapper combining (recsys.freq.inmapper, on by default) words are counted in a TermCounter and written
+ * when the title changes, when the counter holds recsys.freq.inmapper.terms words, and in cleanup.
+ *
+ * Stop words (see VocabularyFilter) are dropped before they are counted.
+ *
+ * Counts TOKENS, STOP_WORDS, TERMS_EMITTED and SKIPPED_LINES (PipelineCounters), published in cleanup.
+ */
+public class FreqMapper extends Mapper<Object, Text, Text, IntWritable> {
+
+    public static final String IN_MAPPER_COMBINING = "recsys.freq.inmapper";
+    public static final String IN_MAPPER_MAX_TERMS = "recsys.freq.inmapper.terms";
+
+    private static final IntWritable one = new IntWritable(1);
+
+    private static final byte[] SPACE = {' '};
+
+    private boolean startParsing = false;
+
+    private String title = "UNKNOWN"; //Default if the title of book DNE
+    private byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+
+    private final Tokenizer tokenizer = new Tokenizer();
+
+    private TermCounter termCounter; //null without in-mapper combining
+
+    private VocabularyFilter vocabularyFilter; //null without stop words
+
+    //Reused for every record written
+    private final Text wordTitle = new Text();
+    private final IntWritable count = new IntWritable();
+
+    private long tokens = 0;
+    private long stopWords = 0;
+    private long termsEmitted = 0;
+    private long skippedLines = 0;
+
+    /**
+     * @return a TermCounter holding recsys.freq.inmapper.terms words (100000 by default)
+     * @throws IllegalArgumentException if recsys.freq.inmapper.terms is below 1
+     */
+    static TermCounter newTermCounter(Configuration conf){
+        int maxTerms = conf.getInt(IN_MAPPER_MAX_TERMS, 100000);
+        if(maxTerms < 1){
+            throw new IllegalArgumentException(IN_MAPPER_MAX_TERMS + " must be at least 1: " + maxTerms);
+        }
+        return new TermCounter(maxTerms);
+    }
+
+    public void setup(Context context) {
+        if(context.getConfiguration().getBoolean(IN_MAPPER_COMBINING, true)){
+            termCounter = newTermCounter(context.getConfiguration());
+        }
+
+        VocabularyFilter filter = VocabularyFilter.fromConf(context.getConfiguration());
+        if(filter.hasStopWords()){
+            vocabularyFilter = filter;
+        }
+    }
+
+    private void writeWord(byte[] word, int start, int length, IntWritable occurrences, Context context) throws IOException, InterruptedException {
+        wordTitle.set(word, start, length);
+        wordTitle.append(SPACE, 0, 1);
+        wordTitle.append(titleBytes, 0, titleBytes.length);
+
+        context.write(wordTitle, occurrences);
+        termsEmitted++;
+    }
+
+    /**
+     * Writes the counted words of the current title and empties the counter
+     */
+    private void flush(Context context) throws IOException, InterruptedException {
+        if(termCounter == null){
+            return;
+        }
+
+        for(int i = 0; i < termCounter.size(); i++){
+            count.set(termCounter.getCount(i));
+            writeWord(termCounter.getTermBytes(), termCounter.getStart(i), termCounter.getLength(i), count, context);
+        }
+        termCounter.clear();
+    }
+
+    private static boolean contains(Text line, byte[] marker){
+        return GutenbergText.contains(line.getBytes(), 0, line.getLength(), marker);
+    }
+
+    public void map(Object key, Text value, Context context) throws IOException, InterruptedException {
+        if(value.getLength() == 0){
+            return;
+        }
+
+        if(contains(value, GutenbergText.START)){ //Everything before this line is ignored
+            startParsing = true;
+            return;
+        }
+
+        if(contains(value, GutenbergText.END)){ //Everything after this line is ignored
+            startParsing = false;
+            return;
+        }
+
+        if(startParsing == false){
+            if(contains(value, GutenbergText.TITLE)){
+                flush(context); //Counted words belong to the previous title
+
+                //Remove all white space from title, lowerCase
+                title = GutenbergText.parseTitle(value.toString());
+                titleBytes = title.getBytes(StandardCharsets.UTF_8);
+            }
+            skippedLines++;
+            return; //Don't start parsing yet
+        }
+
+        tokenizer.reset(value); //Seperate each line by space, remove all characters but a-z (1-9)
+
+        while(tokenizer.next()){
+            tokens++;
+
+            if(vocabularyFilter != null && vocabularyFilter.isStopWord(tokenizer.getBytes(), tokenizer.getLength())){
+                stopWords++;
+                continue;
+            }
+
+            if(termCounter == null){
+                writeWord(tokenizer.getBytes(), 0, tokenizer.getLength(), one, context);
+                continue;
+            }
+
+            termCounter.add(tokenizer.getBytes(), tokenizer.getLength());
+            if(termCounter.isFull()){
+                flush(context);
+            }
+        }
+    }
+
+    public void cleanup(Context context) throws IOException, InterruptedException {
+        flush(context);
+
+        context.getCounter(PipelineCounters.TOKENS).increment(tokens);
+        context.getCounter(PipelineCounters.STOP_WORDS).increment(stopWords);
+        context.getCounter(PipelineCounters.TERMS_EMITTED).increment(termsEmitted);
+        context.getCounter(PipelineCounters.SKIPPED_LINES).increment(skippedLines);
+    }
+}
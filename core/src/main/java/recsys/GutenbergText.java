@@ -0,0 +1,40 @@
+package recsys;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Markers of Project Gutenberg texts, shared by FreqMapper, BookInputFormat and LocalPipeline.
+ *
+ * Lines before "*** START OF" are the header (where "Title:" is found), lines after "*** END OF" are the license.
+ */
+public class GutenbergText {
+
+    public static final byte[] START = "*** START OF".getBytes(StandardCharsets.UTF_8);
+    public static final byte[] END = "*** END OF".getBytes(StandardCharsets.UTF_8);
+    public static final byte[] TITLE = "Title:".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * @return true if bytes[start..end) contain the bytes of the pattern
+     */
+    public static boolean contains(byte[] bytes, int start, int end, byte[] pattern){
+        int last = end - pattern.length;
+
+        for(int i = start; i <= last; i++){
+            int j = 0;
+            while(j < pattern.length && bytes[i + j] == pattern[j]){
+                j++;
+            }
+            if(j == pattern.length){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Title from a "Title:" line, all white space removed and lower cased
+     */
+    public static String parseTitle(String line){
+        return line.split("Title:")[1].replaceAll("\\s+", "").toLowerCase();
+    }
+}
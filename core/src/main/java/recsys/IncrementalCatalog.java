@@ -0,0 +1,467 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the K nearest neighbours of a catalog up to date as books are added, changed or removed, without
+ * recomputing every pair (built on LocalPipeline).
+ *
+ * The state file keeps the word counts of every input file and the neighbour lists. On every run only new and
+ * changed files are read (a file has changed if its length or modification time has). Vectors are recomputed for
+ * every book from the saved counts, which is linear in the catalog, and distances are only computed for:
+ * - the rows of added and changed books (against every book)
+ * - the rows that had a changed or removed book among their neighbours (against every book)
+ * - every other row, against the added and changed books only
+ *
+ * Distances kept from earlier runs were computed with the IDF of those runs. Once the catalog has grown or shrunk by
+ * more than maxDrift (default 10%) of its size at the last full rebuild, or the last full rebuild is older than
+ * maxDays (default 7), every row is recomputed. So is every row when topK, the similarity or the vocabulary filter
+ * differ from the ones the state was saved with.
+ *
+ * Output - same format as the top-K fourth job
+ *      book1_book2 distance
+ *      ...
+ *
+ * Usage: IncrementalCatalog [-D recsys.similarity=cosine] [-D recsys.vocab.*=...] inputDir stateFile outputFile
+ *        [topK] [maxDrift] [maxDays]
+ */
+public class IncrementalCatalog {
+
+    private static final int STATE_VERSION = 2;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final LocalPipeline pipeline;
+    private final int topK;
+    private final double maxDrift;
+    private final int maxDays;
+
+    //Saved state
+    private final Map<String, InputFile> inputFiles = new HashMap<String, InputFile>();
+    private final Map<String, Neighbours> neighbours = new HashMap<String, Neighbours>();
+    private long lastFullRebuild = 0;
+    private int booksAtFullRebuild = 0;
+    private int savedTopK = -1;
+    private String savedSettings = null; //LocalPipeline.settings()
+
+    /**
+     * Word counts of the books of one input file: title -> term -> occurrences
+     */
+    private static class InputFile {
+        private final long length;
+        private final long lastModified;
+        private final Map<String, Map<String, Integer>> bookCounts;
+
+        private InputFile(long length, long lastModified, Map<String, Map<String, Integer>> bookCounts) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.bookCounts = bookCounts;
+        }
+    }
+
+    /**
+     * Nearest books of a book, closest first
+     */
+    private static class Neighbours {
+        private final String[] titles;
+        private final double[] distances;
+
+        private Neighbours(String[] titles, double[] distances) {
+            this.titles = titles;
+            this.distances = distances;
+        }
+
+        private boolean containsAny(Set<String> books){
+            for(String title : titles){
+                if(books.contains(title)){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the list with the book inserted at its place, the farthest book dropped if there are more than K
+         */
+        private Neighbours offer(String title, double distance, int topK){
+            int size = titles.length;
+            if(size >= topK && (size == 0 || distance >= distances[size - 1])){
+                return this;
+            }
+
+            int pos = size;
+            while(pos > 0 && distances[pos - 1] > distance){
+                pos--;
+            }
+
+            int newSize = Math.min(size + 1, topK);
+            String[] newTitles = new String[newSize];
+            double[] newDistances = new double[newSize];
+
+            System.arraycopy(titles, 0, newTitles, 0, pos);
+            System.arraycopy(distances, 0, newDistances, 0, pos);
+            newTitles[pos] = title;
+            newDistances[pos] = distance;
+            System.arraycopy(titles, pos, newTitles, pos + 1, newSize - pos - 1);
+            System.arraycopy(distances, pos, newDistances, pos + 1, newSize - pos - 1);
+
+            return new Neighbours(newTitles, newDistances);
+        }
+    }
+
+    public IncrementalCatalog(LocalPipeline pipeline, int topK, double maxDrift, int maxDays) {
+        this.pipeline = pipeline;
+        this.topK = topK;
+        this.maxDrift = maxDrift;
+        this.maxDays = maxDays;
+    }
+
+    private static Map<String, Map<String, Integer>> readCounts(DataInputStream in) throws IOException {
+        Map<String, Map<String, Integer>> bookCounts = new HashMap<String, Map<String, Integer>>();
+
+        int numBooks = in.readInt();
+        for(int b = 0; b < numBooks; b++){
+            String title = in.readUTF();
+            int numTerms = in.readInt();
+
+            Map<String, Integer> termCounts = new HashMap<String, Integer>(numTerms * 2);
+            for(int t = 0; t < numTerms; t++){
+                termCounts.put(in.readUTF(), in.readInt());
+            }
+            bookCounts.put(title, termCounts);
+        }
+        return bookCounts;
+    }
+
+    private static void writeCounts(DataOutputStream out, Map<String, Map<String, Integer>> bookCounts) throws IOException {
+        out.writeInt(bookCounts.size());
+        for(Map.Entry<String, Map<String, Integer>> book : bookCounts.entrySet()){
+            out.writeUTF(book.getKey());
+            out.writeInt(book.getValue().size());
+            for(Map.Entry<String, Integer> termCount : book.getValue().entrySet()){
+                out.writeUTF(termCount.getKey());
+                out.writeInt(termCount.getValue());
+            }
+        }
+    }
+
+    public void loadState(File stateFile) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)));
+
+        try {
+            int version = in.readInt();
+            if(version != STATE_VERSION){
+                throw new IOException("Unsupported state file version " + version + ", delete the file to rebuild it");
+            }
+            lastFullRebuild = in.readLong();
+            booksAtFullRebuild = in.readInt();
+            savedTopK = in.readInt();
+            savedSettings = in.readUTF();
+
+            int numFiles = in.readInt();
+            for(int f = 0; f < numFiles; f++){
+                String path = in.readUTF();
+                long length = in.readLong();
+                long lastModified = in.readLong();
+                inputFiles.put(path, new InputFile(length, lastModified, readCounts(in)));
+            }
+
+            int numRows = in.readInt();
+            for(int r = 0; r < numRows; r++){
+                String title = in.readUTF();
+                int size = in.readInt();
+
+                String[] titles = new String[size];
+                double[] distances = new double[size];
+                for(int n = 0; n < size; n++){
+                    titles[n] = in.readUTF();
+                    distances[n] = in.readDouble();
+                }
+                neighbours.put(title, new Neighbours(titles, distances));
+            }
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes to a temporary file and renames it, so a failed run leaves the previous state
+     */
+    public void saveState(File stateFile) throws IOException {
+        File tmpFile = new File(stateFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+
+        try {
+            out.writeInt(STATE_VERSION);
+            out.writeLong(lastFullRebuild);
+            out.writeInt(booksAtFullRebuild);
+            out.writeInt(topK);
+            out.writeUTF(pipeline.settings());
+
+            out.writeInt(inputFiles.size());
+            for(Map.Entry<String, InputFile> inputFile : inputFiles.entrySet()){
+                out.writeUTF(inputFile.getKey());
+                out.writeLong(inputFile.getValue().length);
+                out.writeLong(inputFile.getValue().lastModified);
+                writeCounts(out, inputFile.getValue().bookCounts);
+            }
+
+            out.writeInt(neighbours.size());
+            for(Map.Entry<String, Neighbours> row : neighbours.entrySet()){
+                out.writeUTF(row.getKey());
+                out.writeInt(row.getValue().titles.length);
+                for(int n = 0; n < row.getValue().titles.length; n++){
+                    out.writeUTF(row.getValue().titles[n]);
+                    out.writeDouble(row.getValue().distances[n]);
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+
+        Files.move(tmpFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads new and changed files, forgets removed ones
+     * @return the titles of every book in a new, changed or removed file (before and after the change)
+     */
+    private Set<String> updateInputFiles(File inputDir) throws IOException {
+        Set<String> changedBooks = new HashSet<String>();
+
+        File[] listed = inputDir.listFiles();
+        if(listed == null){
+            throw new IOException("Cannot list " + inputDir);
+        }
+
+        Set<String> seen = new HashSet<String>();
+        for(File file : listed){
+            if(!file.isFile() || file.getName().startsWith("_") || file.getName().startsWith(".")){
+                continue;
+            }
+
+            String path = file.getAbsolutePath();
+            seen.add(path);
+
+            InputFile saved = inputFiles.get(path);
+            if(saved != null && saved.length == file.length() && saved.lastModified == file.lastModified()){
+                continue;
+            }
+
+            if(saved != null){
+                changedBooks.addAll(saved.bookCounts.keySet());
+            }
+            InputFile counted = new InputFile(file.length(), file.lastModified(), LocalPipeline.countFile(file));
+            changedBooks.addAll(counted.bookCounts.keySet());
+            inputFiles.put(path, counted);
+        }
+
+        for(String path : new ArrayList<String>(inputFiles.keySet())){
+            if(!seen.contains(path)){
+                changedBooks.addAll(inputFiles.remove(path).bookCounts.keySet());
+            }
+        }
+
+        return changedBooks;
+    }
+
+    /**
+     * @return the counts of every book, summed over the files the book appears in
+     */
+    private Map<String, Map<String, Integer>> bookCounts(){
+        Map<String, Map<String, Integer>> bookCounts = new HashMap<String, Map<String, Integer>>();
+
+        for(InputFile inputFile : inputFiles.values()){
+            for(Map.Entry<String, Map<String, Integer>> book : inputFile.bookCounts.entrySet()){
+                Map<String, Integer> termCounts = bookCounts.get(book.getKey());
+                if(termCounts == null){
+                    termCounts = new HashMap<String, Integer>();
+                    bookCounts.put(book.getKey(), termCounts);
+                }
+                for(Map.Entry<String, Integer> termCount : book.getValue().entrySet()){
+                    Integer count = termCounts.get(termCount.getKey());
+                    termCounts.put(termCount.getKey(), count == null ? termCount.getValue() : count + termCount.getValue());
+                }
+            }
+        }
+        return bookCounts;
+    }
+
+    private boolean needsFullRebuild(int numBooks, long now){
+        if(neighbours.isEmpty() || savedTopK != topK || !pipeline.settings().equals(savedSettings) || booksAtFullRebuild == 0){
+            return true;
+        }
+        double drift = Math.abs(numBooks - booksAtFullRebuild) / (double) booksAtFullRebuild;
+        return drift > maxDrift || now - lastFullRebuild > maxDays * DAY_MILLIS;
+    }
+
+    private static int[] toArray(List<Integer> ids){
+        int[] array = new int[ids.size()];
+        for(int i = 0; i < array.length; i++){
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+
+    private void recomputeRows(LocalPipeline.Catalog catalog, List<Integer> rows){
+        int[] books = toArray(rows);
+
+        TopKHeap[] nearest = pipeline.nearestNeighbours(catalog, books, topK);
+
+        for(int i = 0; i < books.length; i++){
+            String[] titles = new String[nearest[i].size()];
+            double[] distances = new double[nearest[i].size()];
+            for(int n = 0; n < titles.length; n++){
+                titles[n] = catalog.titles[nearest[i].id(n)];
+                distances[n] = nearest[i].distance(n);
+            }
+            neighbours.put(catalog.titles[books[i]], new Neighbours(titles, distances));
+        }
+    }
+
+    /**
+     * Brings the neighbour lists up to date with the files of the input directory
+     * @return the number of rows recomputed against every book
+     */
+    public int update(File inputDir) throws IOException {
+        Set<String> changedBooks = updateInputFiles(inputDir);
+
+        LocalPipeline.Catalog catalog = pipeline.buildCatalog(bookCounts());
+        int numBooks = catalog.titles.length;
+
+        Map<String, Integer> titleToId = new HashMap<String, Integer>();
+        for(int id = 0; id < numBooks; id++){
+            titleToId.put(catalog.titles[id], id);
+        }
+
+        long now = System.currentTimeMillis();
+        List<Integer> rowsToRecompute = new ArrayList<Integer>();
+
+        if(needsFullRebuild(numBooks, now)){
+            neighbours.clear();
+            for(int id = 0; id < numBooks; id++){
+                rowsToRecompute.add(id);
+            }
+            lastFullRebuild = now;
+            booksAtFullRebuild = numBooks;
+        }
+        else {
+            //Removed books
+            neighbours.keySet().retainAll(titleToId.keySet());
+
+            List<Integer> changedIds = new ArrayList<Integer>();
+            for(String title : changedBooks){
+                Integer id = titleToId.get(title);
+                if(id != null){
+                    changedIds.add(id);
+                }
+            }
+
+            List<Integer> rowsToUpdate = new ArrayList<Integer>();
+            for(int id = 0; id < numBooks; id++){
+                Neighbours row = neighbours.get(catalog.titles[id]);
+
+                if(row == null || changedBooks.contains(catalog.titles[id]) || row.containsAny(changedBooks)){
+                    rowsToRecompute.add(id);
+                }
+                else {
+                    rowsToUpdate.add(id);
+                }
+            }
+
+            //Every other row only against the added and changed books, distances on the pool of the pipeline
+            int[] updated = toArray(rowsToUpdate);
+            int[] changed = toArray(changedIds);
+            double[][] distances = pipeline.distances(catalog, updated, changed);
+
+            for(int i = 0; i < updated.length; i++){
+                Neighbours row = neighbours.get(catalog.titles[updated[i]]);
+                for(int j = 0; j < changed.length; j++){
+                    row = row.offer(catalog.titles[changed[j]], distances[i][j], topK);
+                }
+                neighbours.put(catalog.titles[updated[i]], row);
+            }
+        }
+
+        recomputeRows(catalog, rowsToRecompute);
+        savedTopK = topK;
+        savedSettings = pipeline.settings();
+
+        return rowsToRecompute.size();
+    }
+
+    public void writeNeighbours(File outputFile) throws IOException {
+        String[] titles = neighbours.keySet().toArray(new String[neighbours.size()]);
+        Arrays.sort(titles);
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8));
+        try {
+            for(String title : titles){
+                Neighbours row = neighbours.get(title);
+                for(int n = 0; n < row.titles.length; n++){
+                    out.write(title + "_" + row.titles[n] + "\t" + row.distances[n] + "\n");
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs(); //Allows -D recsys.similarity=cosine etc.
+
+        if(args.length < 3){
+            System.out.println("Usage: IncrementalCatalog [-D recsys.similarity=cosine] [-D recsys.vocab.*=...] inputDir stateFile outputFile [topK] [maxDrift] [maxDays]");
+            System.exit(1);
+        }
+
+        File stateFile = new File(args[1]);
+        int topK = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        double maxDrift = args.length > 4 ? Double.parseDouble(args[4]) : 0.1;
+        int maxDays = args.length > 5 ? Integer.parseInt(args[5]) : 7;
+
+        LocalPipeline pipeline = new LocalPipeline(Runtime.getRuntime().availableProcessors(), Similarities.fromConf(conf));
+        pipeline.setVocabularyFilter(VocabularyFilter.fromConf(conf));
+        try {
+            IncrementalCatalog catalog = new IncrementalCatalog(pipeline, topK, maxDrift, maxDays);
+            if(stateFile.exists()){
+                catalog.loadState(stateFile);
+            }
+
+            int recomputed = catalog.update(new File(args[0]));
+            System.out.println("Recomputed " + recomputed + " of " + catalog.neighbours.size() + " rows");
+
+            catalog.saveState(stateFile);
+            catalog.writeNeighbours(new File(args[2]));
+        }
+        finally {
+            pipeline.shutdown();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package recsys;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Compiles the output of the fourth job into a binary index file for MappedSimilarityIndex.
+ *
+ * Usage: IndexCompiler fourthJobOutput indexFile [numSimilarBooks]
+ */
+public class IndexCompiler {
+
+    /**
+     * Orders titles by their UTF-8 bytes compared as unsigned bytes, the order MappedSimilarityIndex searches in
+     */
+    private static class TitleBytesComparator implements Comparator<Integer> {
+        private final byte[][] titles;
+
+        private TitleBytesComparator(byte[][] titles) {
+            this.titles = titles;
+        }
+
+        public int compare(Integer id1, Integer id2) {
+            byte[] title1 = titles[id1];
+            byte[] title2 = titles[id2];
+
+            int common = Math.min(title1.length, title2.length);
+            for(int i = 0; i < common; i++){
+                int cmp = (title1[i] & 0xff) - (title2[i] & 0xff);
+                if(cmp != 0){
+                    return cmp;
+                }
+            }
+            return title1.length - title2.length;
+        }
+    }
+
+    /**
+     * Writes to a temporary file next to indexFile and renames it into place, so a process that has the old file
+     * mapped keeps reading the old file
+     */
+    public static void write(RecommendationIndex index, File indexFile) throws IOException {
+        File tmpFile = new File(indexFile.getPath() + ".tmp");
+        writeFile(index, tmpFile);
+
+        Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFile(RecommendationIndex index, File indexFile) throws IOException {
+        int numBooks = index.size();
+
+        byte[][] titles = new byte[numBooks][];
+        Integer[] sortedIds = new Integer[numBooks];
+        for(int id = 0; id < numBooks; id++){
+            titles[id] = index.getTitle(id).getBytes(StandardCharsets.UTF_8);
+            sortedIds[id] = id;
+        }
+        Arrays.sort(sortedIds, new TitleBytesComparator(titles));
+
+        //Ids in the file are positions in title order
+        int[] newIds = new int[numBooks];
+        for(int i = 0; i < numBooks; i++){
+            newIds[sortedIds[i]] = i;
+        }
+
+        int numEntries = 0;
+        int titleBytesLength = 0;
+        for(int id = 0; id < numBooks; id++){
+            numEntries += index.neighbourCount(id);
+            titleBytesLength += titles[id].length;
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+
+        try {
+            out.writeInt(MappedSimilarityIndex.MAGIC);
+            out.writeInt(MappedSimilarityIndex.VERSION);
+            out.writeInt(numBooks);
+            out.writeInt(numEntries);
+            out.writeInt(titleBytesLength);
+
+            int titleOffset = 0;
+            for(int i = 0; i < numBooks; i++){
+                out.writeInt(titleOffset);
+                titleOffset += titles[sortedIds[i]].length;
+            }
+            out.writeInt(titleOffset);
+
+            for(int i = 0; i < numBooks; i++){
+                out.write(titles[sortedIds[i]]);
+            }
+            for(int pad = titleBytesLength; pad < MappedSimilarityIndex.padded(titleBytesLength); pad++){
+                out.writeByte(0);
+            }
+
+            int rowOffset = 0;
+            for(int i = 0; i < numBooks; i++){
+                out.writeInt(rowOffset);
+                rowOffset += index.neighbourCount(sortedIds[i]);
+            }
+            out.writeInt(rowOffset);
+
+            for(int i = 0; i < numBooks; i++){
+                int id = sortedIds[i];
+                for(int n = 0; n < index.neighbourCount(id); n++){
+                    out.writeInt(newIds[index.neighbour(id, n)]);
+                }
+            }
+
+            for(int i = 0; i < numBooks; i++){
+                int id = sortedIds[i];
+                for(int n = 0; n < index.neighbourCount(id); n++){
+                    out.writeFloat(index.distance(id, n));
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2){
+            System.out.println("Usage: IndexCompiler fourthJobOutput indexFile [numSimilarBooks]");
+            System.exit(1);
+        }
+
+        int numSimilarBooks = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        SimilarityIndex index = SimilarityIndex.load(new File(args[0]), numSimilarBooks);
+        write(index, new File(args[1]));
+
+        System.out.println("Wrote " + index.size() + " books to " + args[1]);
+    }
+}
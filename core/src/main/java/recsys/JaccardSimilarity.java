@@ -0,0 +1,23 @@
+package recsys;
+
+/**
+ * Weighted Jaccard distance between the TF.IDF vectors: 1 - sum of min(weight1, weight2) / sum of max(weight1, weight2)
+ * over the union of the terms of both books.
+ *
+ * Unlike cosine it is not a dot product, a term used much more by one book than the other only counts up to the
+ * smaller weight. Weights are never negative, so the vectors are used as they are.
+ */
+public class JaccardSimilarity implements Similarity {
+
+    public SparseVector prepare(SparseVector bcv) {
+        return bcv;
+    }
+
+    public double distance(SparseVector bcv1, SparseVector bcv2) {
+        return bcv1.jaccardDistance(bcv2);
+    }
+
+    public double distance(QuantizedVector bcv1, QuantizedVector bcv2) {
+        return bcv1.jaccardDistance(bcv2);
+    }
+}
@@ -0,0 +1,512 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs the whole pipeline of RecommendationSystem in a single process, for catalogs that fit in memory.
+ *
+ * Same rules as the MapReduce jobs (Tokenizer and GutenbergText for the words of each book, the term dictionary
+ * order of DictionaryReducer, TfIdf for the vectors and SparseVector for the distances), run on a fork/join pool:
+ * the books are read and counted in parallel, then the vectors, then the distances, row by row.
+ *
+ * Output - same format as the fourth job
+ *      book1_book2 distance
+ *      ...
+ *
+ * Usage: LocalPipeline [-D recsys.vocab.*=...] inputDir outputFile [topK] [threads] [similarity]
+ * With topK > 0 only the K nearest neighbours of every book are written, closest first. similarity is euclidean
+ * (default), cosine or jaccard, see Similarities.
+ */
+public class LocalPipeline {
+
+    //Rows of distances computed by one task
+    private static final int ROWS_PER_TASK = 8;
+
+    private final ForkJoinPool pool;
+    private final Similarity similarity;
+
+    private VocabularyFilter vocabularyFilter = new VocabularyFilter();
+
+    public LocalPipeline(int threads) {
+        this(threads, new EuclideanSimilarity());
+    }
+
+    public LocalPipeline(int threads, Similarity similarity) {
+        this.pool = new ForkJoinPool(threads);
+        this.similarity = similarity;
+    }
+
+    public Similarity getSimilarity(){
+        return similarity;
+    }
+
+    /**
+     * Everything the vectors and distances depend on besides the books, Ex. to tell if saved distances are still valid
+     */
+    public String settings(){
+        return "similarity=" + similarity.getClass().getName() + " " + vocabularyFilter;
+    }
+
+    /**
+     * Terms left out of the vectors, same rules as the MapReduce jobs (nothing is filtered by default)
+     */
+    public void setVocabularyFilter(VocabularyFilter vocabularyFilter){
+        this.vocabularyFilter = vocabularyFilter;
+    }
+
+    /**
+     * Adds the counts of a book to the counts of all books: title -> term -> occurrences
+     */
+    private static void addCounts(Map<String, Map<String, Integer>> bookCounts, String title, Map<String, Integer> counts){
+        Map<String, Integer> termCounts = bookCounts.get(title);
+        if(termCounts == null){
+            bookCounts.put(title, counts);
+            return;
+        }
+
+        for(Map.Entry<String, Integer> termCount : counts.entrySet()){
+            Integer count = termCounts.get(termCount.getKey());
+            termCounts.put(termCount.getKey(), count == null ? termCount.getValue() : count + termCount.getValue());
+        }
+    }
+
+    /**
+     * Moves the words of the counter into the counts of the title
+     */
+    private static void drain(TermCounter counter, String title, Map<String, Map<String, Integer>> bookCounts){
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+
+        for(int i = 0; i < counter.size(); i++){
+            String term = new String(counter.getTermBytes(), counter.getStart(i), counter.getLength(i), StandardCharsets.UTF_8);
+            counts.put(term, counter.getCount(i));
+        }
+        counter.clear();
+
+        if(!counts.isEmpty()){
+            addCounts(bookCounts, title, counts);
+        }
+    }
+
+    /**
+     * Counts the words of every book in the file, line by line with the same rules as FreqMapper
+     */
+    public static Map<String, Map<String, Integer>> countFile(File file) throws IOException {
+        Map<String, Map<String, Integer>> bookCounts = new HashMap<String, Map<String, Integer>>();
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Tokenizer tokenizer = new Tokenizer();
+        TermCounter counter = new TermCounter(1 << 16);
+
+        boolean startParsing = false;
+        String title = "UNKNOWN"; //Default if the title of book DNE
+
+        int lineStart = 0;
+        while(lineStart < bytes.length){
+            int lineEnd = lineStart;
+            while(lineEnd < bytes.length && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r'){
+                lineEnd++;
+            }
+
+            int start = lineStart;
+            lineStart = lineEnd + 1;
+
+            if(lineEnd == start){
+                continue;
+            }
+
+            if(GutenbergText.contains(bytes, start, lineEnd, GutenbergText.START)){
+                startParsing = true;
+                continue;
+            }
+
+            if(GutenbergText.contains(bytes, start, lineEnd, GutenbergText.END)){
+                startParsing = false;
+                continue;
+            }
+
+            if(!startParsing){
+                if(GutenbergText.contains(bytes, start, lineEnd, GutenbergText.TITLE)){
+                    drain(counter, title, bookCounts);
+                    title = GutenbergText.parseTitle(new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8));
+                }
+                continue;
+            }
+
+            tokenizer.reset(bytes, start, lineEnd);
+            while(tokenizer.next()){
+                counter.add(tokenizer.getBytes(), tokenizer.getLength());
+                if(counter.isFull()){
+                    drain(counter, title, bookCounts);
+                }
+            }
+        }
+        drain(counter, title, bookCounts);
+
+        return bookCounts;
+    }
+
+    /**
+     * Counts the files [low, high), splitting the range between threads
+     */
+    private static class CountTask extends RecursiveTask<Map<String, Map<String, Integer>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final File[] files;
+        private final int low;
+        private final int high;
+
+        private CountTask(File[] files, int low, int high) {
+            this.files = files;
+            this.low = low;
+            this.high = high;
+        }
+
+        protected Map<String, Map<String, Integer>> compute() {
+            if(high - low == 1){
+                try {
+                    return countFile(files[low]);
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not read " + files[low], e);
+                }
+            }
+
+            int mid = (low + high) >>> 1;
+            CountTask left = new CountTask(files, low, mid);
+            left.fork();
+            Map<String, Map<String, Integer>> right = new CountTask(files, mid, high).compute();
+            Map<String, Map<String, Integer>> counts = left.join();
+
+            for(Map.Entry<String, Map<String, Integer>> book : right.entrySet()){
+                addCounts(counts, book.getKey(), book.getValue());
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Books and their vectors, in title order
+     */
+    public static class Catalog {
+        public final String[] titles;
+        public final SparseVector[] bcvs;
+
+        public Catalog(String[] titles, SparseVector[] bcvs) {
+            this.titles = titles;
+            this.bcvs = bcvs;
+        }
+    }
+
+    /**
+     * Reads every book of the directory (files starting with _ or . are skipped, like FileInputFormat) and
+     * computes their vectors
+     */
+    public Catalog buildCatalog(File inputDir) throws IOException {
+        List<File> fileList = new ArrayList<File>();
+        File[] listed = inputDir.isDirectory() ? inputDir.listFiles() : new File[]{inputDir};
+        if(listed == null){
+            throw new IOException("Cannot list " + inputDir);
+        }
+        for(File file : listed){
+            if(file.isFile() && !file.getName().startsWith("_") && !file.getName().startsWith(".")){
+                fileList.add(file);
+            }
+        }
+        if(fileList.isEmpty()){
+            throw new IOException("No books in " + inputDir);
+        }
+
+        File[] files = fileList.toArray(new File[fileList.size()]);
+        Arrays.sort(files);
+
+        final Map<String, Map<String, Integer>> bookCounts = pool.invoke(new CountTask(files, 0, files.length));
+
+        return buildCatalog(bookCounts);
+    }
+
+    /**
+     * Term dictionary, normalized term frequency and TF.IDF of the counted books
+     */
+    public Catalog buildCatalog(final Map<String, Map<String, Integer>> bookCounts){
+        final String[] titles = bookCounts.keySet().toArray(new String[bookCounts.size()]);
+        Arrays.sort(titles);
+
+        //Document frequency of every term but the stop words
+        Map<String, Integer> termToBookOccurance = new HashMap<String, Integer>();
+        for(Map<String, Integer> termCounts : bookCounts.values()){
+            for(Map.Entry<String, Integer> termCount : termCounts.entrySet()){
+                if(vocabularyFilter.isStopWord(termCount.getKey())){
+                    continue;
+                }
+                Integer numBooks = termToBookOccurance.get(termCount.getKey());
+                termToBookOccurance.put(termCount.getKey(), numBooks == null ? 1 : numBooks + 1);
+            }
+        }
+
+        //Same ids as DictionaryReducer
+        List<Map.Entry<String, Integer>> terms = new ArrayList<Map.Entry<String, Integer>>();
+        for(Map.Entry<String, Integer> term : termToBookOccurance.entrySet()){
+            if(vocabularyFilter.keepsDocFreq(term.getValue(), titles.length)){
+                terms.add(term);
+            }
+        }
+        Collections.sort(terms, DictionaryReducer.BY_DOC_FREQ);
+
+        final Map<String, Integer> termToId = new HashMap<String, Integer>();
+        final int[] docFreqs = new int[terms.size()];
+        for(Map.Entry<String, Integer> term : terms){
+            docFreqs[termToId.size()] = term.getValue();
+            termToId.put(term.getKey(), termToId.size());
+        }
+
+        final SparseVector[] bcvs = new SparseVector[titles.length];
+
+        pool.invoke(new RecursiveAction() {
+            protected void compute() {
+                List<RecursiveAction> books = new ArrayList<RecursiveAction>();
+                for(int i = 0; i < titles.length; i++){
+                    final int book = i;
+                    books.add(new RecursiveAction() {
+                        protected void compute() {
+                            bcvs[book] = similarity.prepare(bookVector(bookCounts.get(titles[book]), termToId, docFreqs, titles.length, vocabularyFilter));
+                        }
+                    });
+                }
+                invokeAll(books);
+            }
+        });
+
+        return new Catalog(titles, bcvs);
+    }
+
+    /**
+     * TF.IDF vector of a book, normalized by the most frequent term of the book (MaxFreqReducer), terms with a
+     * TF.IDF of 0 are left out (BCVMapper), then all but the top terms (BCVReducer)
+     */
+    private static SparseVector bookVector(Map<String, Integer> termCounts, Map<String, Integer> termToId, int[] docFreqs, int totalNumBooks, VocabularyFilter vocabularyFilter){
+        //Terms without an id were left out of the dictionary
+        int maxFreq = 0;
+        for(Map.Entry<String, Integer> termCount : termCounts.entrySet()){
+            if(termToId.containsKey(termCount.getKey())){
+                maxFreq = Math.max(maxFreq, termCount.getValue());
+            }
+        }
+
+        int[] termIds = new int[termCounts.size()];
+        double[] TFIDFs = new double[termCounts.size()];
+        int numTerms = 0;
+
+        for(Map.Entry<String, Integer> termCount : termCounts.entrySet()){
+            Integer termId = termToId.get(termCount.getKey());
+            if(termId == null){
+                continue;
+            }
+
+            double TFIDF = TfIdf.tf(termCount.getValue(), maxFreq) * TfIdf.idf(totalNumBooks, docFreqs[termId]);
+            if(TFIDF == 0){
+                continue;
+            }
+
+            termIds[numTerms] = termId;
+            TFIDFs[numTerms] = TFIDF;
+            numTerms++;
+        }
+
+        numTerms = vocabularyFilter.keepTopTerms(termIds, TFIDFs, numTerms);
+
+        return SparseVector.sorted(Arrays.copyOf(termIds, numTerms), Arrays.copyOf(TFIDFs, numTerms));
+    }
+
+    /**
+     * Computes the distances of the rows [low, high) and writes them. Without top-K row i is compared with the books
+     * from i on (the upper triangle, including itself), with top-K with every other book.
+     */
+    private static class DistanceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Catalog catalog;
+        private final Similarity similarity;
+        private final int topK;
+        private final Writer out;
+        private final int low;
+        private final int high;
+
+        private DistanceTask(Catalog catalog, Similarity similarity, int topK, Writer out, int low, int high) {
+            this.catalog = catalog;
+            this.similarity = similarity;
+            this.topK = topK;
+            this.out = out;
+            this.low = low;
+            this.high = high;
+        }
+
+        protected void compute() {
+            if(high - low > ROWS_PER_TASK){
+                int mid = (low + high) >>> 1;
+                invokeAll(new DistanceTask(catalog, similarity, topK, out, low, mid), new DistanceTask(catalog, similarity, topK, out, mid, high));
+                return;
+            }
+
+            StringBuilder lines = new StringBuilder();
+            TopKHeap nearest = topK > 0 ? new TopKHeap(topK) : null;
+
+            for(int i = low; i < high; i++){
+                SparseVector bcv = catalog.bcvs[i];
+
+                if(nearest == null){
+                    for(int j = i; j < catalog.bcvs.length; j++){
+                        appendLine(lines, i, j, similarity.distance(bcv, catalog.bcvs[j]));
+                    }
+                    continue;
+                }
+
+                nearest.clear();
+                for(int j = 0; j < catalog.bcvs.length; j++){
+                    if(j != i){
+                        nearest.offer(j, similarity.distance(bcv, catalog.bcvs[j]));
+                    }
+                }
+                nearest.sort();
+                for(int n = 0; n < nearest.size(); n++){
+                    appendLine(lines, i, nearest.id(n), nearest.distance(n));
+                }
+            }
+
+            try {
+                synchronized (out) {
+                    out.write(lines.toString());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not write distances", e);
+            }
+        }
+
+        private void appendLine(StringBuilder lines, int book1, int book2, double distance){
+            lines.append(catalog.titles[book1]).append('_').append(catalog.titles[book2]).append('\t').append(distance).append('\n');
+        }
+    }
+
+    /**
+     * Distances from each of the given books to each of the others, in parallel
+     * @return distances[i][j] between books[i] and others[j], ids are indexes into the catalog
+     */
+    public double[][] distances(final Catalog catalog, final int[] books, final int[] others){
+        final double[][] distances = new double[books.length][];
+
+        pool.invoke(new RecursiveAction() {
+            protected void compute() {
+                List<RecursiveAction> rows = new ArrayList<RecursiveAction>();
+                for(int i = 0; i < books.length; i++){
+                    final int row = i;
+                    rows.add(new RecursiveAction() {
+                        protected void compute() {
+                            SparseVector bcv = catalog.bcvs[books[row]];
+                            distances[row] = new double[others.length];
+                            for(int j = 0; j < others.length; j++){
+                                distances[row][j] = similarity.distance(bcv, catalog.bcvs[others[j]]);
+                            }
+                        }
+                    });
+                }
+                invokeAll(rows);
+            }
+        });
+
+        return distances;
+    }
+
+    /**
+     * Finds the K nearest neighbours of the given books in parallel
+     * @return a sorted heap for every given book, ids are indexes into the catalog
+     */
+    public TopKHeap[] nearestNeighbours(final Catalog catalog, final int[] books, final int topK){
+        final TopKHeap[] nearest = new TopKHeap[books.length];
+
+        pool.invoke(new RecursiveAction() {
+            protected void compute() {
+                List<RecursiveAction> rows = new ArrayList<RecursiveAction>();
+                for(int i = 0; i < books.length; i++){
+                    final int row = i;
+                    rows.add(new RecursiveAction() {
+                        protected void compute() {
+                            int book = books[row];
+                            TopKHeap heap = new TopKHeap(topK);
+                            for(int j = 0; j < catalog.bcvs.length; j++){
+                                if(j != book){
+                                    heap.offer(j, similarity.distance(catalog.bcvs[book], catalog.bcvs[j]));
+                                }
+                            }
+                            heap.sort();
+                            nearest[row] = heap;
+                        }
+                    });
+                }
+                invokeAll(rows);
+            }
+        });
+
+        return nearest;
+    }
+
+    public void writeDistances(Catalog catalog, int topK, File outputFile) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8));
+
+        try {
+            pool.invoke(new DistanceTask(catalog, similarity, topK, out, 0, catalog.titles.length));
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    public void shutdown(){
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs(); //Allows -D recsys.vocab.mindf=2 etc.
+
+        if(args.length < 2){
+            System.out.println("Usage: LocalPipeline [-D recsys.vocab.*=...] inputDir outputFile [topK] [threads] [similarity]");
+            System.exit(1);
+        }
+
+        int topK = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Similarity similarity = Similarities.forName(args.length > 4 ? args[4] : Similarities.EUCLIDEAN);
+
+        LocalPipeline pipeline = new LocalPipeline(threads, similarity);
+        pipeline.setVocabularyFilter(VocabularyFilter.fromConf(conf));
+        try {
+            long start = System.currentTimeMillis();
+            Catalog catalog = pipeline.buildCatalog(new File(args[0]));
+            System.out.println("Vectors of " + catalog.titles.length + " books in " + (System.currentTimeMillis() - start) + " ms");
+
+            start = System.currentTimeMillis();
+            pipeline.writeDistances(catalog, topK, new File(args[1]));
+            System.out.println("Distances in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        finally {
+            pipeline.shutdown();
+        }
+    }
+}
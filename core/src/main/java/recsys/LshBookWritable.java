@@ -0,0 +1,67 @@
+package recsys;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A book sent to an LSH bucket: its title, its signature in every table and its vector.
+ */
+public class LshBookWritable implements Writable {
+
+    private String book;
+    private int[] signatures;
+    private final SparseVectorWritable bcv = new SparseVectorWritable();
+
+    public LshBookWritable() {
+    }
+
+    public LshBookWritable(String book, int[] signatures, SparseVector bcv) {
+        this.book = book;
+        this.signatures = signatures;
+        this.bcv.set(bcv);
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public int[] getSignatures() {
+        return signatures;
+    }
+
+    public SparseVector getBCV() {
+        return bcv.get();
+    }
+
+    /**
+     * Bits per weight of the vector when it is written (see SparseVectorWritable)
+     */
+    public void setBits(int bits) {
+        bcv.setBits(bits);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeString(out, book);
+        WritableUtils.writeVInt(out, signatures.length);
+        for(int signature : signatures){
+            out.writeInt(signature);
+        }
+        bcv.write(out);
+    }
+
+    /**
+     * Creates new arrays on every call, so the fields can be kept after Hadoop reuses this object
+     */
+    public void readFields(DataInput in) throws IOException {
+        book = WritableUtils.readString(in);
+        signatures = new int[WritableUtils.readVInt(in)];
+        for(int i = 0; i < signatures.length; i++){
+            signatures[i] = in.readInt();
+        }
+        bcv.readFields(in);
+    }
+}
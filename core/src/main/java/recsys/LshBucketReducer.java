@@ -0,0 +1,120 @@
+package recsys;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Computes the exact distance between the books that share an LSH bucket.
+ *
+ * Two books can share a bucket in several tables, the pair is only written by the bucket of the first table they
+ * share so every candidate pair is written once.
+ *
+ * A bucket holds at most recsys.lsh.maxbucket books (1000 by default), so one degenerate bucket (Ex. every empty
+ * vector, or few bits per table on a large catalog) cannot make a reducer quadratic in the catalog. Larger buckets
+ * are sampled down to that size (reservoir sampling, seeded by the bucket so a retried task keeps the same books),
+ * and the books left out are counted as LSH_OVERFLOW (PipelineCounters). Their pairs can still come from the other
+ * tables, unless this bucket was the first table they share.
+ *
+ * Input -
+ *      Key - table and signature (see LshMapper)
+ *      Value - Books in the bucket
+ * Output - One record per candidate pair
+ *      Key - BookPairWritable Book1_Book2
+ *      Value - Distance (see Similarity)
+ */
+public class LshBucketReducer extends Reducer<LongWritable, LshBookWritable, BookPairWritable, DoubleWritable> {
+
+    public static final String MAX_BUCKET = "recsys.lsh.maxbucket";
+
+    private Similarity similarity;
+    private int maxBucket;
+
+    private final Random random = new Random();
+
+    private long pairsCompared = 0;
+    private long distanceNanos = 0;
+    private long overflowBooks = 0;
+
+    public void setup(Context context) {
+        similarity = Similarities.fromConf(context.getConfiguration());
+
+        maxBucket = context.getConfiguration().getInt(MAX_BUCKET, 1000);
+        if(maxBucket < 2){
+            throw new IllegalArgumentException(MAX_BUCKET + " must be at least 2: " + maxBucket);
+        }
+    }
+
+    private static LshBookWritable copy(LshBookWritable book){
+        //Hadoop reuses the value object, its fields are new objects on every read
+        return new LshBookWritable(book.getBook(), book.getSignatures(), book.getBCV());
+    }
+
+    /**
+     * @return true if both books share a bucket in a table before the given one
+     */
+    private boolean sharedEarlier(LshBookWritable book1, LshBookWritable book2, int table){
+        for(int t = 0; t < table; t++){
+            if(book1.getSignatures()[t] == book2.getSignatures()[t]){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void reduce(LongWritable key, Iterable<LshBookWritable> value, Context context) throws IOException, InterruptedException {
+        int table = (int) (key.get() >>> 32);
+
+        //A uniform sample of at most maxBucket books
+        List<LshBookWritable> books = new ArrayList<LshBookWritable>();
+        random.setSeed(key.get());
+        int numBooks = 0;
+        for(LshBookWritable book : value){
+            numBooks++;
+            if(books.size() < maxBucket){
+                books.add(copy(book));
+            }
+            else {
+                int replaced = random.nextInt(numBooks);
+                if(replaced < maxBucket){
+                    books.set(replaced, copy(book));
+                }
+            }
+        }
+        overflowBooks += numBooks - books.size();
+
+        for(int i = 0; i < books.size(); i++){
+            for(int j = i + 1; j < books.size(); j++){
+                LshBookWritable book1 = books.get(i);
+                LshBookWritable book2 = books.get(j);
+
+                if(sharedEarlier(book1, book2, table)){
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                double distance = similarity.distance(book1.getBCV(), book2.getBCV());
+                distanceNanos += System.nanoTime() - start;
+                pairsCompared++;
+
+                if(book1.getBook().compareTo(book2.getBook()) > 0){
+                    LshBookWritable swap = book1;
+                    book1 = book2;
+                    book2 = swap;
+                }
+                context.write(new BookPairWritable(book1.getBook(), book2.getBook()), new DoubleWritable(distance));
+            }
+        }
+    }
+
+    public void cleanup(Context context) {
+        context.getCounter(PipelineCounters.PAIRS_COMPARED).increment(pairsCompared);
+        context.getCounter(PipelineCounters.DISTANCE_MILLIS).increment(distanceNanos / 1000000);
+        context.getCounter(PipelineCounters.LSH_OVERFLOW).increment(overflowBooks);
+    }
+}
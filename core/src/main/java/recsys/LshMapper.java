@@ -0,0 +1,45 @@
+package recsys;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+
+/**
+ * Sends every book to its LSH bucket in each table.
+ *
+ * Input - output of the third job
+ *          Key - Book
+ *          Value - SparseVectorWritable (BCV of the book)
+ * Output - One record per table
+ *          Key - table in the high 32 bits, signature in the low 32 bits
+ *          Value - LshBookWritable (book, signatures, BCV prepared for the Similarity of the run)
+ */
+public class LshMapper extends Mapper<Text, SparseVectorWritable, LongWritable, LshBookWritable> {
+
+    private LshSignature lshSignature;
+    private Similarity similarity;
+    private int bits;
+
+    private final LongWritable bucket = new LongWritable();
+
+    public void setup(Context context) {
+        lshSignature = LshSignature.fromConf(context.getConfiguration());
+        similarity = Similarities.fromConf(context.getConfiguration());
+        bits = context.getConfiguration().getInt(QuantizedVector.BITS, 64);
+    }
+
+    public void map(Text key, SparseVectorWritable value, Context context) throws IOException, InterruptedException {
+        SparseVector bcv = similarity.prepare(value.get());
+        int[] signatures = lshSignature.signatures(bcv);
+
+        LshBookWritable book = new LshBookWritable(key.toString(), signatures, bcv);
+        book.setBits(bits); //Less to shuffle with fewer bits
+
+        for(int table = 0; table < signatures.length; table++){
+            bucket.set(((long) table << 32) | signatures[table]);
+            context.write(bucket, book);
+        }
+    }
+}
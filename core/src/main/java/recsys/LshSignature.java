@@ -0,0 +1,90 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Random hyperplane signatures of book characteristic vectors (locality sensitive hashing).
+ *
+ * Every table has numBits hyperplanes. Bit j of a signature is 1 if the vector is on the positive side of
+ * hyperplane j, so books with a small angle between their vectors are likely to get the same signature in at least
+ * one table. The hyperplanes are never stored: the +1/-1 component of a hyperplane for a term is taken from a hash of
+ * (seed, table, term id), so every task computes the same signatures.
+ */
+public class LshSignature {
+
+    public static final String NUM_TABLES = "recsys.lsh.tables";
+    public static final String NUM_BITS = "recsys.lsh.bits";
+    public static final String SEED = "recsys.lsh.seed";
+
+    private final int numTables;
+    private final int numBits;
+    private final long seed;
+
+    //Projections onto the hyperplanes of one table, reused between vectors
+    private final double[] projections;
+
+    /**
+     * @param numBits - bits per signature, at most 31
+     */
+    public LshSignature(int numTables, int numBits, long seed) {
+        if(numBits < 1 || numBits > 31){
+            throw new IllegalArgumentException("Number of bits must be between 1 and 31: " + numBits);
+        }
+        this.numTables = numTables;
+        this.numBits = numBits;
+        this.seed = seed;
+        this.projections = new double[numBits];
+    }
+
+    public static LshSignature fromConf(Configuration conf){
+        return new LshSignature(conf.getInt(NUM_TABLES, 8), conf.getInt(NUM_BITS, 12), conf.getLong(SEED, 42));
+    }
+
+    public int getNumTables() {
+        return numTables;
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads the bits of x over the whole long
+     */
+    static long mix(long x){
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * @return the signature of the vector in every table
+     */
+    public int[] signatures(SparseVector vector){
+        int[] signatures = new int[numTables];
+
+        for(int table = 0; table < numTables; table++){
+            long tableSeed = mix(seed + table);
+
+            for(int bit = 0; bit < numBits; bit++){
+                projections[bit] = 0;
+            }
+
+            for(int i = 0; i < vector.size(); i++){
+                //One hash gives the sign of the term's component for every hyperplane of the table
+                long signs = mix(tableSeed ^ vector.termId(i));
+                double weight = vector.weight(i);
+
+                for(int bit = 0; bit < numBits; bit++){
+                    projections[bit] += ((signs >>> bit) & 1) == 0 ? weight : -weight;
+                }
+            }
+
+            int signature = 0;
+            for(int bit = 0; bit < numBits; bit++){
+                if(projections[bit] > 0){
+                    signature |= 1 << bit;
+                }
+            }
+            signatures[table] = signature;
+        }
+
+        return signatures;
+    }
+}
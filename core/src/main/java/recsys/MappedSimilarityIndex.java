@@ -0,0 +1,193 @@
+package recsys;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A binary index file written by IndexCompiler, memory mapped and read in place.
+ *
+ * Nothing is loaded when the file is opened: lookups read the mapped buffer directly, so opening is instant and
+ * processes that open the same file share the page cache. Titles are sorted by their UTF-8 bytes, so getId is a
+ * binary search over the title table.
+ *
+ * File format (big endian):
+ *      int magic "RIDX", int version, int numBooks, int numEntries, int titleBytesLength
+ *      int[numBooks + 1] title offsets into the title bytes
+ *      byte[titleBytesLength] UTF-8 titles, padded to a multiple of 4
+ *      int[numBooks + 1] row offsets into the neighbours
+ *      int[numEntries] neighbours, closest first within a row
+ *      float[numEntries] distances
+ */
+public class MappedSimilarityIndex implements RecommendationIndex {
+
+    public static final int MAGIC = 0x52494458; //RIDX
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 20;
+
+    private final MappedByteBuffer buffer;
+
+    private final int numBooks;
+    private final int titleOffsetsPos;
+    private final int titleBytesPos;
+    private final int rowOffsetsPos;
+    private final int neighboursPos;
+    private final int distancesPos;
+
+    /**
+     * Checks the header against the size of the file, so a truncated or corrupt file fails to open instead of
+     * failing on lookups. Row and title offsets inside the tables are not checked, that would read the whole file.
+     * @throws IOException if the file is not a complete index file
+     */
+    private MappedSimilarityIndex(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC){
+            throw new IOException("Not a recommendation index file");
+        }
+        if(buffer.getInt(4) != VERSION){
+            throw new IOException("Unsupported index version " + buffer.getInt(4));
+        }
+
+        numBooks = buffer.getInt(8);
+        int numEntries = buffer.getInt(12);
+        int titleBytesLength = buffer.getInt(16);
+        if(numBooks < 0 || numEntries < 0 || titleBytesLength < 0){
+            throw new IOException("Corrupt index header: " + numBooks + " books, " + numEntries + " entries, "
+                    + titleBytesLength + " title bytes");
+        }
+
+        //Longs, so a corrupt header cannot overflow into positions that look valid
+        long titleBytes = HEADER_SIZE + 4L * (numBooks + 1);
+        long rowOffsets = titleBytes + ((titleBytesLength + 3L) & ~3L);
+        long neighbours = rowOffsets + 4L * (numBooks + 1);
+        long distances = neighbours + 4L * numEntries;
+        long fileSize = distances + 4L * numEntries;
+        if(fileSize > buffer.capacity()){
+            throw new IOException("Truncated index file: " + buffer.capacity() + " bytes, the header needs " + fileSize);
+        }
+
+        titleOffsetsPos = HEADER_SIZE;
+        titleBytesPos = (int) titleBytes;
+        rowOffsetsPos = (int) rowOffsets;
+        neighboursPos = (int) neighbours;
+        distancesPos = (int) distances;
+
+        if(buffer.getInt(titleOffsetsPos + 4 * numBooks) != titleBytesLength || buffer.getInt(rowOffsetsPos + 4 * numBooks) != numEntries){
+            throw new IOException("Corrupt index file: the offset tables do not end at the sizes in the header");
+        }
+    }
+
+    /**
+     * @return the length rounded up to a multiple of 4, so the int and float arrays are aligned
+     */
+    public static int padded(int length){
+        return (length + 3) & ~3;
+    }
+
+    /**
+     * @return true if the file starts with the magic number of an index file
+     */
+    public static boolean isIndexFile(File file) throws IOException {
+        if(!file.isFile() || file.length() < HEADER_SIZE){
+            return false;
+        }
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            return randomAccessFile.readInt() == MAGIC;
+        }
+        finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public static MappedSimilarityIndex open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            //The mapping stays valid after the channel is closed
+            return new MappedSimilarityIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public int size(){
+        return numBooks;
+    }
+
+    private int titleStart(int id){
+        return titleBytesPos + buffer.getInt(titleOffsetsPos + 4 * id);
+    }
+
+    /**
+     * Compares the UTF-8 bytes of a title in the buffer with the given bytes, as unsigned bytes
+     */
+    private int compareTitle(int id, byte[] title){
+        int start = titleStart(id);
+        int length = titleStart(id + 1) - start;
+
+        int common = Math.min(length, title.length);
+        for(int i = 0; i < common; i++){
+            int cmp = (buffer.get(start + i) & 0xff) - (title[i] & 0xff);
+            if(cmp != 0){
+                return cmp;
+            }
+        }
+        return length - title.length;
+    }
+
+    public int getId(String title){
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+
+        int low = 0;
+        int high = numBooks - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int cmp = compareTitle(mid, titleBytes);
+
+            if(cmp < 0){
+                low = mid + 1;
+            }
+            else if(cmp > 0){
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public String getTitle(int id){
+        int start = titleStart(id);
+        byte[] title = new byte[titleStart(id + 1) - start];
+
+        for(int i = 0; i < title.length; i++){
+            title[i] = buffer.get(start + i);
+        }
+        return new String(title, StandardCharsets.UTF_8);
+    }
+
+    private int rowStart(int id){
+        return buffer.getInt(rowOffsetsPos + 4 * id);
+    }
+
+    public int neighbourCount(int id){
+        return rowStart(id + 1) - rowStart(id);
+    }
+
+    public int neighbour(int id, int i){
+        return buffer.getInt(neighboursPos + 4 * (rowStart(id) + i));
+    }
+
+    public float distance(int id, int i){
+        return buffer.getFloat(distancesPos + 4 * (rowStart(id) + i));
+    }
+}
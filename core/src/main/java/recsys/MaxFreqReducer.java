@@ -0,0 +1,45 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+
+/**
+ * Calculates the normalized term frequency of every term of a book.
+ *
+ * Keys are sorted with the most occurrences first and grouped by book (see BookFreqKeyWritable), so the first value
+ * is the most frequent term of the book and every term is written as soon as it is read, nothing is buffered.
+ *
+ * Input - from TermFreqMapper
+ *      Key - BookFreqKeyWritable (BookTitle, Frequency), for every value
+ *      Value - Term id
+ * Output - For each term, the normalized term frequency in the book, collated by TermFreqReducer
+ *      Key - Term id
+ *      Value - BookFreqWritable (BookTitle, Frequency, MaxFrequency)
+ * Example output:
+ * Most frequent term of L appears 20 times
+ *      7 |L_10/20
+ *      9 |L_4/20
+ */
+public class MaxFreqReducer extends Reducer<BookFreqKeyWritable, IntWritable, IntWritable, BookFreqWritable> {
+
+    public static final String NUM_REDUCERS = "recsys.termfreq.reducers";
+
+    private final BookFreqWritable bookFreq = new BookFreqWritable();
+
+    public void reduce(BookFreqKeyWritable key, Iterable<IntWritable> value, Context context) throws IOException, InterruptedException {
+        String book = key.getBook();
+        int maxFreq = 0;
+
+        for(IntWritable termId : value){
+            //Hadoop moves the key along with the values, so it holds the frequency of this term
+            if(maxFreq == 0){
+                maxFreq = key.getFreq();
+            }
+
+            bookFreq.set(book, key.getFreq(), maxFreq);
+            context.write(termId, bookFreq);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package recsys;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A book and its distance to the book it is the value of.
+ */
+public class NeighbourWritable implements Writable {
+
+    private String book;
+    private double distance;
+
+    public NeighbourWritable() {
+    }
+
+    public NeighbourWritable(String book, double distance) {
+        set(book, distance);
+    }
+
+    public void set(String book, double distance){
+        this.book = book;
+        this.distance = distance;
+    }
+
+    public String getBook() {
+        return book;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeString(out, book);
+        out.writeDouble(distance);
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        book = WritableUtils.readString(in);
+        distance = in.readDouble();
+    }
+
+    public String toString(){
+        return book + " " + distance;
+    }
+}
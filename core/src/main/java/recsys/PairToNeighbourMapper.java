@@ -0,0 +1,25 @@
+package recsys;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+
+/**
+ * Turns a distance between two books into a candidate neighbour of each book, for TopKReducer.
+ *
+ * Input - SequenceFile of book pairs (Ex. output of LshBucketReducer)
+ *          Key - BookPairWritable Book1_Book2
+ *          Value - distance
+ * Output - Two records
+ *          Key - Book1, Value - (Book2, distance)
+ *          Key - Book2, Value - (Book1, distance)
+ */
+public class PairToNeighbourMapper extends Mapper<BookPairWritable, DoubleWritable, Text, NeighbourWritable> {
+
+    public void map(BookPairWritable key, DoubleWritable value, Context context) throws IOException, InterruptedException {
+        context.write(new Text(key.getBook1()), new NeighbourWritable(key.getBook2(), value.get()));
+        context.write(new Text(key.getBook2()), new NeighbourWritable(key.getBook1(), value.get()));
+    }
+}
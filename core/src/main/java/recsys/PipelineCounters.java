@@ -0,0 +1,20 @@
+package recsys;
+
+/**
+ * Counters published by the mappers and reducers, printed by RecommendationSystem after every job.
+ */
+public enum PipelineCounters {
+    SKIPPED_LINES,      //Lines of the books outside the START/END markers (FreqMapper or BookInputFormat)
+    TOKENS,             //Words read from the books (FreqMapper or WholeBookMapper)
+    STOP_WORDS,         //Words dropped as stop words (FreqMapper or WholeBookMapper)
+    TERMS_EMITTED,      //Word Title records written (FreqMapper or WholeBookMapper)
+    BOOKS,              //Books in the corpus (DictionaryReducer)
+    FILTERED_TERMS,     //Terms left out of the dictionary by document frequency (DictionaryReducer)
+    UNKNOWN_TERMS,      //Word Title records skipped because the word is not in the dictionary (TermFreqMapper)
+    PARSE_FAILURES,     //Malformed lines, skipped
+    NONZERO_TFIDF,      //Terms with a TF.IDF above 0 (BCVMapper)
+    TRIMMED_TERMS,      //Terms dropped from vectors by the top terms per book limit (BCVReducer)
+    PAIRS_COMPARED,     //Distances computed by the fourth job
+    LSH_OVERFLOW,       //Books left out of LSH buckets larger than recsys.lsh.maxbucket (LshBucketReducer)
+    DISTANCE_MILLIS     //Time spent computing distances in the fourth job
+}
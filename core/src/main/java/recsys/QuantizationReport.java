@@ -0,0 +1,179 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the K nearest neighbours found with fewer bits per weight (see QuantizedVector.BITS) with the ones found
+ * at full precision, like RecallReport does for an approximate fourth job.
+ *
+ * For every precision it prints the bytes of a written vector (SparseVectorWritable, what the LSH fourth job
+ * shuffles) and recall@K over a random sample of books: the fraction of the K nearest neighbours at full precision
+ * that are also among the K nearest at that precision. Distances are the Similarity of the run, on the vectors
+ * as the blocked fourth job holds them.
+ *
+ * Usage: QuantizationReport [-D recsys.similarity=cosine] bcvDir [K] [sampleSize]
+ * bcvDir is the third job output written with the default 64 bits.
+ */
+public class QuantizationReport {
+
+    private static final int[] BITS = {32, 16, 8};
+
+    private final Similarity similarity;
+    private final List<String> titles = new ArrayList<String>();
+    private final List<SparseVector> bcvs = new ArrayList<SparseVector>();
+
+    private QuantizationReport(Configuration conf, Path bcvPath) throws IOException {
+        similarity = Similarities.fromConf(conf);
+
+        Text title = new Text();
+        SparseVectorWritable vector = new SparseVectorWritable();
+
+        for(FileStatus part : BCVBlocks.listParts(bcvPath.getFileSystem(conf), bcvPath)){
+            SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(part.getPath()));
+            try {
+                while(reader.next(title, vector)){
+                    titles.add(title.toString());
+                    bcvs.add(similarity.prepare(vector.get()));
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the vector with the given bits and reads it back
+     * @return the number of bytes written
+     */
+    private static int roundTrip(SparseVector bcv, int bits, SparseVectorWritable copy) throws IOException {
+        DataOutputBuffer out = new DataOutputBuffer();
+        new SparseVectorWritable(bcv, bits).write(out);
+
+        DataInputBuffer in = new DataInputBuffer();
+        in.reset(out.getData(), out.getLength());
+        copy.readFields(in);
+
+        return out.getLength();
+    }
+
+    /**
+     * @return the ids of the K nearest books, the book itself left out
+     */
+    private static Set<Integer> nearest(int book, int k, Distances distances){
+        TopKHeap heap = new TopKHeap(k);
+        for(int other = 0; other < distances.size(); other++){
+            if(other != book){
+                heap.offer(other, distances.distance(book, other));
+            }
+        }
+
+        Set<Integer> ids = new HashSet<Integer>();
+        for(int i = 0; i < heap.size(); i++){
+            ids.add(heap.id(i));
+        }
+        return ids;
+    }
+
+    private interface Distances {
+        int size();
+        double distance(int book1, int book2);
+    }
+
+    private double recall(List<Integer> sample, int k, Distances exact, Distances approximate){
+        double recallSum = 0;
+        for(int book : sample){
+            recallSum += RecallReport.overlap(nearest(book, k, exact), nearest(book, k, approximate));
+        }
+        return sample.isEmpty() ? 0 : recallSum / sample.size();
+    }
+
+    private void report(int k, int sampleSize) throws IOException {
+        List<Integer> sample = new ArrayList<Integer>();
+        for(int i = 0; i < titles.size(); i++){
+            sample.add(i);
+        }
+        Collections.shuffle(sample, new Random(42));
+        sample = sample.subList(0, Math.min(sampleSize, sample.size()));
+
+        Distances exact = new Distances() {
+            public int size() {
+                return bcvs.size();
+            }
+
+            public double distance(int book1, int book2) {
+                return similarity.distance(bcvs.get(book1), bcvs.get(book2));
+            }
+        };
+
+        SparseVectorWritable copy = new SparseVectorWritable();
+        long fullBytes = 0;
+        for(SparseVector bcv : bcvs){
+            fullBytes += roundTrip(bcv, 64, copy);
+        }
+
+        System.out.println("Books: " + titles.size() + ", recall@" + k + " over " + sample.size() + " sampled books");
+        System.out.println("64 bits: " + fullBytes + " bytes");
+
+        for(int bits : BITS){
+            long bytes = 0;
+            final List<SparseVector> copies = new ArrayList<SparseVector>();
+            final List<QuantizedVector> quantized = new ArrayList<QuantizedVector>();
+
+            for(SparseVector bcv : bcvs){
+                bytes += roundTrip(bcv, bits, copy);
+                copies.add(copy.get());
+                if(bits <= 16){
+                    quantized.add(QuantizedVector.quantize(bcv, bits));
+                }
+            }
+
+            //Full precision kernels on the read back weights for 32 bits, kernels on the codes for 16 and 8
+            Distances approximate = new Distances() {
+                public int size() {
+                    return copies.size();
+                }
+
+                public double distance(int book1, int book2) {
+                    if(quantized.isEmpty()){
+                        return similarity.distance(copies.get(book1), copies.get(book2));
+                    }
+                    return similarity.distance(quantized.get(book1), quantized.get(book2));
+                }
+            };
+
+            System.out.println(bits + " bits: " + bytes + " bytes (" + Math.round(100.0 * bytes / fullBytes) + "%), recall "
+                    + recall(sample, k, exact, approximate));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs(); //Allows -D recsys.similarity=cosine
+
+        if(args.length < 1){
+            System.out.println("Usage: QuantizationReport [-D recsys.similarity=cosine] bcvDir [K] [sampleSize]");
+            System.exit(1);
+        }
+
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int sampleSize = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        new QuantizationReport(conf, new Path(args[0])).report(k, sampleSize);
+    }
+}
@@ -0,0 +1,177 @@
+package recsys;
+
+/**
+ * Book characteristic vector with 8 or 16 bit weights.
+ *
+ * Weight i is code(i) * scale, with one scale per vector chosen so the largest weight gets the largest code
+ * (127 or 32767). Products of codes are summed as longs and scaled once, so distances are computed on the codes
+ * without converting the weights back.
+ */
+public class QuantizedVector {
+
+    //-D recsys.vector.bits=64|32|16|8, the precision of the weights written by the third job and held by the
+    //blocked fourth job (64, full precision, by default)
+    public static final String BITS = "recsys.vector.bits";
+
+    private final int[] termIds;
+
+    //One of the two holds the codes
+    private final byte[] codes8;
+    private final short[] codes16;
+
+    private final double scale;
+
+    //Sum of the squared weights
+    private final double squaredNorm;
+
+    private QuantizedVector(int[] termIds, byte[] codes8, short[] codes16, double scale) {
+        this.termIds = termIds;
+        this.codes8 = codes8;
+        this.codes16 = codes16;
+        this.scale = scale;
+
+        long sum = 0;
+        for(int i = 0; i < termIds.length; i++){
+            sum += code(i) * code(i);
+        }
+        this.squaredNorm = sum * scale * scale;
+    }
+
+    /**
+     * @param bits - 8 or 16
+     */
+    public static QuantizedVector quantize(SparseVector vector, int bits){
+        float scale = scale(vector, bits);
+
+        int[] termIds = new int[vector.size()];
+        byte[] codes8 = bits == 8 ? new byte[vector.size()] : null;
+        short[] codes16 = bits == 8 ? null : new short[vector.size()];
+
+        for(int i = 0; i < vector.size(); i++){
+            termIds[i] = vector.termId(i);
+            if(codes8 != null){
+                codes8[i] = (byte) code(vector.weight(i), scale);
+            }
+            else {
+                codes16[i] = (short) code(vector.weight(i), scale);
+            }
+        }
+        return new QuantizedVector(termIds, codes8, codes16, scale);
+    }
+
+    /**
+     * @return the scale that gives the largest weight of the vector the largest code of the given bits (0 for an
+     * empty vector)
+     */
+    public static float scale(SparseVector vector, int bits){
+        if(bits != 8 && bits != 16){
+            throw new IllegalArgumentException("Weights are quantized to 8 or 16 bits: " + bits);
+        }
+
+        double maxWeight = 0;
+        for(int i = 0; i < vector.size(); i++){
+            maxWeight = Math.max(maxWeight, Math.abs(vector.weight(i)));
+        }
+        return (float) (maxWeight / ((1 << (bits - 1)) - 1));
+    }
+
+    public static int code(double weight, float scale){
+        return scale == 0 ? 0 : (int) Math.round(weight / scale);
+    }
+
+    public int size(){
+        return termIds.length;
+    }
+
+    private int code(int i){
+        return codes8 != null ? codes8[i] : codes16[i];
+    }
+
+    /**
+     * The weights as doubles, Ex. for a Similarity
+     */
+    public SparseVector dequantize(){
+        double[] weights = new double[termIds.length];
+        for(int i = 0; i < termIds.length; i++){
+            weights[i] = code(i) * scale;
+        }
+        return new SparseVector(termIds, weights);
+    }
+
+    /**
+     * Dot product, only the terms present in both vectors count
+     */
+    public double dot(QuantizedVector other){
+        final int[] ids1 = termIds;
+        final int[] ids2 = other.termIds;
+
+        long sum = 0;
+        int i = 0;
+        int j = 0;
+
+        while(i < ids1.length && j < ids2.length){
+            int id1 = ids1[i];
+            int id2 = ids2[j];
+            if(id1 == id2){
+                sum += code(i++) * other.code(j++);
+            }
+            else if(id1 < id2){
+                i++;
+            }
+            else {
+                j++;
+            }
+        }
+
+        return sum * scale * other.scale;
+    }
+
+    /**
+     * Euclidean distance from the squared norms and the dot product, so only the shared terms are visited
+     */
+    public double euclideanDistance(QuantizedVector other){
+        return Math.sqrt(Math.max(0, squaredNorm + other.squaredNorm - 2 * dot(other)));
+    }
+
+    /**
+     * Weighted Jaccard distance over the union of the terms. The scales of the two vectors differ, so the codes of
+     * a shared term are scaled before they are compared.
+     */
+    public double jaccardDistance(QuantizedVector other){
+        final int[] ids1 = termIds;
+        final int[] ids2 = other.termIds;
+
+        double minSum = 0;
+        double maxSum = 0;
+        int i = 0;
+        int j = 0;
+
+        while(i < ids1.length && j < ids2.length){
+            if(ids1[i] == ids2[j]){
+                double w1 = code(i++) * scale;
+                double w2 = other.code(j++) * other.scale;
+                minSum += Math.min(w1, w2);
+                maxSum += Math.max(w1, w2);
+            }
+            else if(ids1[i] < ids2[j]){
+                maxSum += code(i++) * scale;
+            }
+            else {
+                maxSum += other.code(j++) * other.scale;
+            }
+        }
+
+        //Terms left over in either vector, summed as codes and scaled once
+        long rest1 = 0;
+        for(; i < ids1.length; i++){
+            rest1 += code(i);
+        }
+        long rest2 = 0;
+        for(; j < ids2.length; j++){
+            rest2 += other.code(j);
+        }
+        maxSum += rest1 * scale + rest2 * other.scale;
+
+        return maxSum == 0 ? 0 : 1 - minSum / maxSum;
+    }
+}
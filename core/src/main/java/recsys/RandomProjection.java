@@ -0,0 +1,75 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Projects book characteristic vectors to a fixed number of dimensions (random projection).
+ *
+ * Component j of a projection is the dot product of the vector with a random +1/-1 vector, scaled by
+ * 1/sqrt(dimensions), so distances and dot products between projections are close to the ones between the sparse
+ * vectors. Like the hyperplanes of LshSignature the random vectors are never stored: the signs for a term are taken
+ * from a hash of (seed, term id), 64 dimensions per hash, so every task and run projects the same way.
+ */
+public class RandomProjection {
+
+    public static final String DIMENSIONS = "recsys.embedding.dims";
+    public static final String SEED = "recsys.embedding.seed";
+
+    private final int dimensions;
+    private final float scale;
+
+    //Seed of every block of 64 dimensions
+    private final long[] blockSeeds;
+
+    //Projection being computed, reused between vectors
+    private final double[] sums;
+
+    public RandomProjection(int dimensions, long seed) {
+        if(dimensions < 1){
+            throw new IllegalArgumentException("Number of dimensions must be positive: " + dimensions);
+        }
+        this.dimensions = dimensions;
+        this.scale = (float) (1 / Math.sqrt(dimensions));
+        this.sums = new double[dimensions];
+
+        blockSeeds = new long[(dimensions + 63) / 64];
+        for(int block = 0; block < blockSeeds.length; block++){
+            blockSeeds[block] = LshSignature.mix(seed + block);
+        }
+    }
+
+    public static RandomProjection fromConf(Configuration conf){
+        return new RandomProjection(conf.getInt(DIMENSIONS, 64), conf.getLong(SEED, 42));
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Writes the projection of the vector to out[offset .. offset + dimensions)
+     */
+    public void project(SparseVector vector, float[] out, int offset){
+        for(int d = 0; d < dimensions; d++){
+            sums[d] = 0;
+        }
+
+        for(int i = 0; i < vector.size(); i++){
+            double weight = vector.weight(i);
+
+            for(int block = 0; block < blockSeeds.length; block++){
+                long signs = LshSignature.mix(blockSeeds[block] ^ vector.termId(i));
+
+                int first = block * 64;
+                int last = Math.min(dimensions, first + 64);
+                for(int d = first; d < last; d++){
+                    sums[d] += ((signs >>> (d - first)) & 1) == 0 ? weight : -weight;
+                }
+            }
+        }
+
+        for(int d = 0; d < dimensions; d++){
+            out[offset + d] = (float) sums[d] * scale;
+        }
+    }
+}
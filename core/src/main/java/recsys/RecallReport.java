@@ -0,0 +1,171 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the neighbours found by an approximate fourth job (Ex. recsys.fourth.mode=lsh) with the exact ones.
+ *
+ * For a random sample of books, recall is the fraction of the K nearest neighbours in the exact output that are
+ * also among the K nearest neighbours in the approximate output.
+ *
+ * Usage: RecallReport exactOutput approximateOutput [K] [sampleSize]
+ * Outputs are paths on the job file system (Ex. HDFS), files or directories of part files in the format of the
+ * fourth job:
+ * book1_book2 value1
+ * book1_book3 value2
+ * ...
+ */
+public class RecallReport {
+
+    /**
+     * Reads a fourth job output (a file, or every part file of a directory) into a list of neighbours per book
+     */
+    private static Map<String, List<Neighbour>> readNeighbours(Configuration conf, Path output) throws IOException {
+        Map<String, List<Neighbour>> neighbours = new HashMap<String, List<Neighbour>>();
+
+        FileSystem fs = output.getFileSystem(conf);
+        FileStatus status = fs.getFileStatus(output);
+        FileStatus[] files = status.isDirectory() ? BCVBlocks.listParts(fs, output) : new FileStatus[]{status};
+
+        for(FileStatus file : files){
+            BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(fs.open(file.getPath()), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while((line = bufferedReader.readLine()) != null){
+                    String[] spaceSep = line.split("\\s+"); //splits [book1_book2, value1]
+                    String[] books = spaceSep[0].split("_"); // [book1, book2]
+
+                    if(books[0].equals(books[1])){
+                        continue;
+                    }
+
+                    double distance = Double.parseDouble(spaceSep[1]);
+                    addNeighbour(neighbours, books[0], books[1], distance);
+                    addNeighbour(neighbours, books[1], books[0], distance);
+                }
+            }
+            finally {
+                bufferedReader.close();
+            }
+        }
+
+        return neighbours;
+    }
+
+    private static void addNeighbour(Map<String, List<Neighbour>> neighbours, String book, String other, double distance){
+        List<Neighbour> row = neighbours.get(book);
+        if(row == null){
+            row = new ArrayList<Neighbour>();
+            neighbours.put(book, row);
+        }
+        row.add(new Neighbour(other, distance));
+    }
+
+    private static class Neighbour implements Comparable<Neighbour> {
+        private final String book;
+        private final double distance;
+
+        private Neighbour(String book, double distance) {
+            this.book = book;
+            this.distance = distance;
+        }
+
+        public int compareTo(Neighbour other) {
+            return Double.compare(distance, other.distance);
+        }
+    }
+
+    /**
+     * @return the K nearest distinct neighbours in the row
+     */
+    private static Set<String> topK(List<Neighbour> row, int k){
+        Set<String> nearest = new HashSet<String>();
+        if(row == null){
+            return nearest;
+        }
+
+        Collections.sort(row);
+        for(Neighbour neighbour : row){
+            if(nearest.size() >= k){
+                break;
+            }
+            nearest.add(neighbour.book);
+        }
+        return nearest;
+    }
+
+    /**
+     * @return the fraction of the exact nearest neighbours that are also in the approximate ones (1 if there are none)
+     */
+    public static <T> double overlap(Set<T> exactNearest, Set<T> approximateNearest){
+        if(exactNearest.isEmpty()){
+            return 1;
+        }
+
+        int found = 0;
+        for(T neighbour : exactNearest){
+            if(approximateNearest.contains(neighbour)){
+                found++;
+            }
+        }
+        return (double) found / exactNearest.size();
+    }
+
+    /**
+     * @return average recall@K over the sampled books
+     */
+    private static double recall(Map<String, List<Neighbour>> exact, Map<String, List<Neighbour>> approximate, int k, int sampleSize, long seed){
+        List<String> books = new ArrayList<String>(exact.keySet());
+        Collections.sort(books);
+        Collections.shuffle(books, new Random(seed));
+
+        int sampled = Math.min(sampleSize, books.size());
+        double recallSum = 0;
+
+        for(String book : books.subList(0, sampled)){
+            Set<String> exactNearest = topK(exact.get(book), k);
+            Set<String> approximateNearest = topK(approximate.get(book), k);
+
+            recallSum += overlap(exactNearest, approximateNearest);
+        }
+
+        return sampled == 0 ? 0 : recallSum / sampled;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs(); //Allows -fs hdfs://namenode:8020 etc.
+
+        if(args.length < 2){
+            System.out.println("Usage: RecallReport exactOutput approximateOutput [K] [sampleSize]");
+            System.exit(1);
+        }
+
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int sampleSize = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        Map<String, List<Neighbour>> exact = readNeighbours(conf, new Path(args[0]));
+        Map<String, List<Neighbour>> approximate = readNeighbours(conf, new Path(args[1]));
+
+        System.out.println("Books: " + exact.size() + " exact, " + approximate.size() + " approximate");
+        System.out.println("Recall@" + k + " over " + Math.min(sampleSize, exact.size()) + " sampled books: "
+                + recall(exact, approximate, k, sampleSize, 42));
+    }
+}
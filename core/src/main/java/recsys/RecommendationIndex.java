@@ -0,0 +1,27 @@
+package recsys;
+
+/**
+ * Read only lookup of the nearest books of every book.
+ *
+ * Books are numbered 0..size-1, the neighbours of a book are ordered closest first.
+ */
+public interface RecommendationIndex {
+
+    int size();
+
+    /**
+     * @return the id of the book, or -1 if the book is not in the index
+     */
+    int getId(String title);
+
+    String getTitle(int id);
+
+    int neighbourCount(int id);
+
+    /**
+     * @return the id of the i-th closest neighbour of the book
+     */
+    int neighbour(int id, int i);
+
+    float distance(int id, int i);
+}
@@ -0,0 +1,416 @@
+package recsys;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HTTP query service on top of a RecommendationIndex (JDK built-in HttpServer).
+ *
+ * GET  /similar?book=title&k=10           similar books of one book
+ * GET  /batch?book=title1&book=title2&k=10 similar books of several books (POST: one title per line in the body)
+ * GET  /recommend?book=title1&book=title2&k=10 books most like all of the given books (see SeedRecommender)
+ * POST /reload[?path=indexFile]           opens the index again (or a new one next to it) and swaps it in
+ *
+ * Indexes are immutable, so every request thread reads the current one without locking. A reload builds the new
+ * index (and its SeedRecommender) on the side and swaps them in together with one reference, requests already
+ * running finish on the old ones. To replace a binary index, write the new file next to it and reload with its path
+ * (IndexCompiler renames into place), never overwrite a mapped file.
+ *
+ * Nothing is authenticated: the server listens on the loopback address unless another bind address is given, and a
+ * reload only opens files in the directory of the index it was started with. A batch has at most MAX_BATCH titles
+ * and MAX_BATCH_BYTES of body (413 above), and a request that finds every thread busy and the queue full gets 503.
+ *
+ * Usage: RecommendationServer indexFile [port] [threads] [numSimilarBooks] [bindAddress]
+ */
+public class RecommendationServer {
+
+    /**
+     * The index being served, its recommender and the file it was opened from, swapped as one
+     */
+    private static class ServedIndex {
+        private final File indexFile;
+        private final RecommendationIndex index;
+        private final SeedRecommender recommender;
+
+        private ServedIndex(File indexFile, RecommendationIndex index, SeedRecommender recommender) {
+            this.indexFile = indexFile;
+            this.index = index;
+            this.recommender = recommender;
+        }
+    }
+
+    private final AtomicReference<ServedIndex> served = new AtomicReference<ServedIndex>();
+
+    private final int maxNeighbours;
+
+    //The only directory a reload may open an index from, the one of the index given at start
+    private final File indexDir;
+
+    //Seed sets whose recommendations are cached, per index
+    private static final int CACHE_SIZE = 10000;
+
+    //Titles and body bytes of one /batch request
+    public static final int MAX_BATCH = 1000;
+    public static final int MAX_BATCH_BYTES = 1 << 20;
+
+    //Set while a request the pool rejected runs on the dispatcher thread, which then only answers 503
+    private static final ThreadLocal<Boolean> OVERLOADED = new ThreadLocal<Boolean>();
+
+    public RecommendationServer(File indexFile, int maxNeighbours) throws IOException {
+        this.maxNeighbours = maxNeighbours;
+        this.indexDir = indexFile.getCanonicalFile().getParentFile();
+        reload(indexFile);
+    }
+
+    /**
+     * @param path - an index file name, relative to the directory of the first index, or an absolute path in it
+     * @return the index file, or null if it is outside that directory (Ex. "../etc/passwd", "/tmp/index")
+     */
+    private File allowedIndexFile(String path) throws IOException {
+        File file = new File(path);
+        if(!file.isAbsolute()){
+            file = new File(indexDir, path);
+        }
+
+        file = file.getCanonicalFile(); //Resolves ".." and symbolic links
+        return indexDir.equals(file.getParentFile()) ? file : null;
+    }
+
+    /**
+     * Opens the index file and swaps it in. Lookups keep using the old index until it is fully opened. Reloads run
+     * one at a time, so the last one started is the one served.
+     */
+    public synchronized void reload(File newIndexFile) throws IOException {
+        RecommendationIndex newIndex = SimilarityIndex.open(newIndexFile, maxNeighbours);
+
+        //The cache of the old index is dropped with it
+        served.set(new ServedIndex(newIndexFile, newIndex, new SeedRecommender(newIndex, CACHE_SIZE)));
+    }
+
+    /**
+     * @return the query parameter values with the given name, in order
+     * @throws IllegalArgumentException if a value has a malformed % escape
+     */
+    private static List<String> getParams(String query, String name) throws UnsupportedEncodingException {
+        List<String> values = new ArrayList<String>();
+        if(query == null){
+            return values;
+        }
+
+        for(String param : query.split("&")){
+            int eq = param.indexOf('=');
+            if(eq > 0 && param.substring(0, eq).equals(name)){
+                values.add(URLDecoder.decode(param.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return k between 0 and the neighbours kept for every book, so a query never sizes anything past the index
+     */
+    private int getK(String query) throws UnsupportedEncodingException {
+        List<String> k = getParams(query, "k");
+        try {
+            return k.isEmpty() ? maxNeighbours : Math.min(maxNeighbours, Math.max(0, Integer.parseInt(k.get(0))));
+        } catch (NumberFormatException e) {
+            return maxNeighbours;
+        }
+    }
+
+    private static void appendJsonString(StringBuilder json, String value){
+        json.append('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '"' || c == '\\'){
+                json.append('\\').append(c);
+            }
+            else if(c < 0x20){
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Appends {"book":"title","similar":[{"book":"title","distance":0.5},...]}, or null if the book is unknown
+     * @return false if the book is not in the index
+     */
+    private static boolean appendSimilarBooks(StringBuilder json, RecommendationIndex index, String title, int k){
+        int book = index.getId(title);
+        if(book < 0){
+            json.append("null");
+            return false;
+        }
+
+        json.append("{\"book\":");
+        appendJsonString(json, title);
+        json.append(",\"similar\":[");
+
+        int numSimilarBooks = Math.min(k, index.neighbourCount(book));
+        for(int i = 0; i < numSimilarBooks; i++){
+            if(i > 0){
+                json.append(',');
+            }
+            json.append("{\"book\":");
+            appendJsonString(json, index.getTitle(index.neighbour(book, i)));
+            json.append(",\"distance\":").append(index.distance(book, i)).append('}');
+        }
+        json.append("]}");
+        return true;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        OutputStream out = exchange.getResponseBody();
+        try {
+            out.write(bytes);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the request body, at most maxBytes of it
+     * @return the body, or null if it is longer than maxBytes
+     */
+    private static byte[] readBody(HttpExchange exchange, int maxBytes) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+
+        InputStream in = exchange.getRequestBody();
+        int read;
+        while((read = in.read(buffer)) != -1){
+            if(body.size() + read > maxBytes){
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Answers 400 to a request with a malformed query and 500 to a bug instead of dropping the connection, and 503
+     * without any lookup when the pool rejected the request
+     */
+    private static abstract class JsonHandler implements HttpHandler {
+        public void handle(HttpExchange exchange) throws IOException {
+            if(OVERLOADED.get() != null){
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, "{\"error\":\"server busy\"}");
+                return;
+            }
+
+            try {
+                respond(exchange);
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, "{\"error\":\"malformed query\"}");
+            } catch (RuntimeException e) {
+                System.err.println("Error answering " + exchange.getRequestURI() + ": " + e);
+                send(exchange, 500, "{\"error\":\"internal error\"}");
+            }
+        }
+
+        protected abstract void respond(HttpExchange exchange) throws IOException;
+    }
+
+    private class SimilarHandler extends JsonHandler {
+        protected void respond(HttpExchange exchange) throws IOException {
+            String query = exchange.getRequestURI().getRawQuery();
+            List<String> books = getParams(query, "book");
+
+            if(books.isEmpty()){
+                send(exchange, 400, "{\"error\":\"missing book\"}");
+                return;
+            }
+
+            StringBuilder json = new StringBuilder();
+            boolean found = appendSimilarBooks(json, served.get().index, books.get(0), getK(query));
+
+            send(exchange, found ? 200 : 404, found ? json.toString() : "{\"error\":\"book not found\"}");
+        }
+    }
+
+    private class BatchHandler extends JsonHandler {
+        protected void respond(HttpExchange exchange) throws IOException {
+            String query = exchange.getRequestURI().getRawQuery();
+            List<String> books = getParams(query, "book");
+
+            if(exchange.getRequestMethod().equals("POST")){
+                byte[] body = readBody(exchange, MAX_BATCH_BYTES);
+                if(body == null){
+                    send(exchange, 413, "{\"error\":\"body over " + MAX_BATCH_BYTES + " bytes\"}");
+                    return;
+                }
+
+                for(String line : new String(body, StandardCharsets.UTF_8).split("\n")){
+                    if(!line.trim().isEmpty()){
+                        books.add(line.trim());
+                    }
+                }
+            }
+
+            if(books.size() > MAX_BATCH){
+                send(exchange, 413, "{\"error\":\"more than " + MAX_BATCH + " books\"}");
+                return;
+            }
+
+            //Same index for the whole batch, even if a reload happens meanwhile
+            RecommendationIndex current = served.get().index;
+            int k = getK(query);
+
+            StringBuilder json = new StringBuilder("{\"results\":[");
+            for(int i = 0; i < books.size(); i++){
+                if(i > 0){
+                    json.append(',');
+                }
+                appendSimilarBooks(json, current, books.get(i), k);
+            }
+            json.append("]}");
+
+            send(exchange, 200, json.toString());
+        }
+    }
+
+    private class RecommendHandler extends JsonHandler {
+        protected void respond(HttpExchange exchange) throws IOException {
+            String query = exchange.getRequestURI().getRawQuery();
+            List<String> books = getParams(query, "book");
+
+            //The recommender and its index stay the same for the request, even if a reload happens meanwhile
+            ServedIndex current = served.get();
+            RecommendationIndex currentIndex = current.index;
+
+            int[] seeds = new int[books.size()];
+            for(int i = 0; i < seeds.length; i++){
+                seeds[i] = currentIndex.getId(books.get(i)); //Unknown books are left out
+            }
+
+            SeedRecommender.Recommendations recommendations = current.recommender.recommend(seeds, getK(query));
+
+            StringBuilder json = new StringBuilder("{\"recommended\":[");
+            for(int i = 0; i < recommendations.size(); i++){
+                if(i > 0){
+                    json.append(',');
+                }
+                json.append("{\"book\":");
+                appendJsonString(json, currentIndex.getTitle(recommendations.ids[i]));
+                json.append(",\"score\":").append(recommendations.scores[i]).append('}');
+            }
+            json.append("]}");
+
+            send(exchange, 200, json.toString());
+        }
+    }
+
+    private class ReloadHandler extends JsonHandler {
+        protected void respond(HttpExchange exchange) throws IOException {
+            if(!exchange.getRequestMethod().equals("POST")){
+                send(exchange, 405, "{\"error\":\"use POST\"}");
+                return;
+            }
+
+            List<String> path = getParams(exchange.getRequestURI().getRawQuery(), "path");
+            File newIndexFile = path.isEmpty() ? served.get().indexFile : allowedIndexFile(path.get(0));
+
+            if(newIndexFile == null){
+                send(exchange, 403, "{\"error\":\"index must be in the directory of the current one\"}");
+                return;
+            }
+
+            try {
+                reload(newIndexFile);
+            } catch (IOException e) {
+                send(exchange, 500, "{\"error\":\"could not open index\"}");
+                return;
+            }
+
+            send(exchange, 200, "{\"books\":" + served.get().index.size() + "}");
+        }
+    }
+
+    /**
+     * Runs a request the pool rejected on the dispatcher thread, where JsonHandler answers 503 right away instead of
+     * looking anything up, so a full pool costs the dispatcher one request parse and not a whole handler
+     */
+    private static final RejectedExecutionHandler ANSWER_BUSY = new RejectedExecutionHandler() {
+        public void rejectedExecution(Runnable request, ThreadPoolExecutor executor) {
+            if(executor.isShutdown()){
+                return;
+            }
+
+            OVERLOADED.set(Boolean.TRUE);
+            try {
+                request.run();
+            }
+            finally {
+                OVERLOADED.remove();
+            }
+        }
+    };
+
+    /**
+     * Starts the server on a bounded pool of threads. When every thread is busy and the queue is full, requests
+     * get 503 with Retry-After until one finishes.
+     */
+    public HttpServer start(InetAddress bindAddress, int port, int threads) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+
+        server.createContext("/similar", new SimilarHandler());
+        server.createContext("/batch", new BatchHandler());
+        server.createContext("/recommend", new RecommendHandler());
+        server.createContext("/reload", new ReloadHandler());
+
+        server.setExecutor(new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(threads * 64), ANSWER_BUSY));
+        server.start();
+
+        return server;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1){
+            System.out.println("Usage: RecommendationServer indexFile [port] [threads] [numSimilarBooks] [bindAddress]");
+            System.exit(1);
+        }
+
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors() * 2;
+        int numSimilarBooks = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        //Ex. 0.0.0.0 for every interface, only when the port is not reachable from untrusted clients
+        InetAddress bindAddress = args.length > 4 ? InetAddress.getByName(args[4]) : InetAddress.getLoopbackAddress();
+
+        RecommendationServer recommendationServer = new RecommendationServer(new File(args[0]), numSimilarBooks);
+        recommendationServer.start(bindAddress, port, threads);
+
+        System.out.println("Serving " + recommendationServer.served.get().index.size() + " books on "
+                + bindAddress.getHostAddress() + ":" + port);
+    }
+}
@@ -0,0 +1,540 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskCounter;
+import org.apache.hadoop.mapreduce.lib.input.NLineInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Created by ydubale on 3/17/15.
+ */
+public class RecommendationSystem {
+
+    //"blocked" compares blocks of books in memory, "allpairs" is the original EuclidDMapper/EuclidDReducer job,
+    //"lsh" only compares books that share a locality sensitive hashing bucket (approximate, see RecallReport), "dense"
+    //compares low dimensional embeddings of the books in the driver (approximate, see EmbeddingSearch)
+    public static final String FOURTH_JOB_MODE = "recsys.fourth.mode";
+
+    //-D recsys.topk=K makes the blocked fourth job write only the K nearest neighbours of each book (not allpairs)
+    //-D recsys.similarity=cosine|jaccard uses cosine or weighted Jaccard instead of Euclidean distance (not allpairs,
+    //and not jaccard with dense, see Similarities)
+
+    //Map tasks of the allpairs fourth job, each gets the same number of comparisons
+    public static final String ALLPAIRS_MAPS = "recsys.fourth.maps";
+
+    //Also write the binary outputs of the second and third jobs as text
+    public static final String TEXT_EXPORT = "recsys.text.export";
+
+    //Directory of the intermediate and final outputs (the output of the first job is given on the command line)
+    public static final String WORK_DIR = "recsys.work.dir";
+
+    //Computes the book characteristic vectors in one job (TfIdfReducer), false runs the TermFreq, TermFreq Collate
+    //and BCV jobs instead
+    public static final String FUSED = "recsys.fused";
+
+    //The first job reads one book per record, many files per map task (BookInputFormat), false reads the books
+    //line by line with one map task per file
+    public static final String WHOLE_BOOKS = "recsys.wholebooks";
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException, InterruptedException, URISyntaxException {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs(); //Allows -D recsys.fourth.mode=allpairs etc.
+
+        conf.setLong("mapred.task.timeout", 1800000);
+
+        run(args, conf);
+    }
+
+    /**
+     * Runs every job, printing a summary after each one (see runJob)
+     * @param args - input directory and output directory of the first job
+     */
+    public static void run(String[] args, Configuration conf) throws IOException, ClassNotFoundException, InterruptedException, URISyntaxException {
+        long start = System.currentTimeMillis();
+
+        String fourthJobMode = conf.get(FOURTH_JOB_MODE, "blocked");
+        boolean allPairs = fourthJobMode.equals("allpairs");
+
+        if(allPairs && !conf.get(Similarity.SIMILARITY, Similarities.EUCLIDEAN).equals(Similarities.EUCLIDEAN)){
+            throw new IllegalArgumentException("The allpairs fourth job only computes Euclidean distances");
+        }
+        if(fourthJobMode.equals("dense") && conf.get(Similarity.SIMILARITY, Similarities.EUCLIDEAN).equals(Similarities.JACCARD)){
+            throw new IllegalArgumentException("The dense fourth job only computes Euclidean or cosine distances");
+        }
+
+        boolean fused = conf.getBoolean(FUSED, true);
+
+        Path firstJobOutputPath = new Path(args[1]);
+        runFirstJob(args, conf); //Calculates unigram of words per book
+
+        long totalNumBooks = runDictionaryJob(conf, firstJobOutputPath); // Gives every term an int id, most common terms first
+        conf.setLong(BCVMapper.TOTAL_BOOKS, totalNumBooks);
+
+        long numVectors;
+        if(fused){
+            numVectors = runTfIdfJob(conf, firstJobOutputPath); // Calculates the book characteristic vector
+        }
+        else {
+            runSecondJob(conf, firstJobOutputPath); // Calculates the normalized term frequency, per book
+
+            numVectors = runThirdJob(conf); // Calculates the book characteristic vector
+        }
+
+        if(!fused && conf.getBoolean(TEXT_EXPORT, false)){
+            runTextExportJob(conf, workPath(conf, "secondJobOutput"), workPath(conf, "secondJobText"));
+        }
+        if(allPairs || conf.getBoolean(TEXT_EXPORT, false)){
+            //EuclidDMapper seeks to line offsets, so it reads the text version of the BCV file
+            runTextExportJob(conf, workPath(conf, "thirdJobOutput"), workPath(conf, "thirdJobText"));
+        }
+
+        if(allPairs){
+            conf.setInt("mapred.reduce.tasks", 50); //Running on ~50 nodes
+            runFourthJob(conf, numVectors); // Creates the similarity matrix of books
+        }
+        else if(fourthJobMode.equals("lsh")){
+            runLshFourthJob(conf); // Distances between the books of each LSH bucket
+        }
+        else if(fourthJobMode.equals("dense")){
+            long denseStart = System.currentTimeMillis();
+            EmbeddingSearch.run(conf, workPath(conf, "thirdJobOutput"), workPath(conf, "fourthJobOutput/part-r-00000"),
+                    conf.getInt(TopKReducer.TOP_K, 0), Runtime.getRuntime().availableProcessors());
+            System.out.println("== Dense search done in " + (System.currentTimeMillis() - denseStart) / 1000.0 + " s");
+        }
+        else {
+            runBlockedFourthJob(conf); // Creates the similarity matrix of books, block by block
+        }
+
+        System.out.println("== All jobs done in " + (System.currentTimeMillis() - start) / 1000.0 + " s");
+    }
+
+    private static Path workPath(Configuration conf, String name){
+        return new Path(conf.get(WORK_DIR, "/recSys"), name);
+    }
+
+    /**
+     * Runs the job and prints its wall time, record counts, shuffle bytes and PipelineCounters
+     * @throws IOException if the job failed, so the jobs after it are not run
+     */
+    private static void runJob(Job job) throws IOException, InterruptedException, ClassNotFoundException {
+        long start = System.currentTimeMillis();
+        boolean success = job.waitForCompletion(true);
+        long wallTime = System.currentTimeMillis() - start;
+
+        Counters counters = job.getCounters();
+
+        System.out.println("== " + job.getJobName() + (success ? " done" : " FAILED") + " in " + wallTime / 1000.0 + " s");
+        if(counters != null){
+            System.out.println("   map input records " + counters.findCounter(TaskCounter.MAP_INPUT_RECORDS).getValue()
+                    + ", map output records " + counters.findCounter(TaskCounter.MAP_OUTPUT_RECORDS).getValue()
+                    + ", reduce output records " + counters.findCounter(TaskCounter.REDUCE_OUTPUT_RECORDS).getValue()
+                    + ", shuffle bytes " + counters.findCounter(TaskCounter.REDUCE_SHUFFLE_BYTES).getValue());
+
+            for(Counter counter : counters.getGroup(PipelineCounters.class.getName())){
+                System.out.println("   " + counter.getName() + " " + counter.getValue());
+            }
+        }
+
+        if(!success){
+            throw new IOException(job.getJobName() + " failed");
+        }
+    }
+
+    /**
+     * Writes one line "rowBlock colBlock" for every pair of blocks with rowBlock <= colBlock
+     */
+    private static void writeBlockPairs(Configuration conf, Path blockPairsPath, int numBlocks) throws IOException {
+        FileSystem fs = FileSystem.get(conf);
+        FSDataOutputStream out = fs.create(blockPairsPath, true);
+
+        try {
+            for(int row = 0; row < numBlocks; row++){
+                for(int col = row; col < numBlocks; col++){
+                    out.writeBytes(row + " " + col + "\n");
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    private static void runBlockedFourthJob(Configuration conf) throws IOException, URISyntaxException, InterruptedException, ClassNotFoundException {
+        Job fourthJob = Job.getInstance(conf, "Blocked EuclidD Job");
+
+        fourthJob.setJarByClass(RecommendationSystem.class);
+
+        int numBlocks = conf.getInt(BCVBlocks.NUM_BLOCKS, 10);
+        fourthJob.getConfiguration().setInt(BCVBlocks.NUM_BLOCKS, numBlocks);
+
+        Path blockPairsPath = workPath(conf, "fourthJobBlocks/blockPairs.txt");
+        writeBlockPairs(conf, blockPairsPath, numBlocks);
+
+        // Each pair of blocks gets sent to a mapper
+        fourthJob.setInputFormatClass(NLineInputFormat.class);
+        fourthJob.getConfiguration().setInt("mapreduce.input.lineinputformat.linespermap", 1);
+
+        if(conf.getInt(TopKReducer.TOP_K, 0) > 0){
+            //Only the K nearest neighbours of every book, closest first
+            fourthJob.setMapperClass(BlockTopKMapper.class);
+            fourthJob.setMapOutputKeyClass(Text.class);
+            fourthJob.setMapOutputValueClass(NeighbourWritable.class);
+
+            fourthJob.setReducerClass(TopKReducer.class);
+        }
+        else {
+            fourthJob.setMapperClass(BlockDistanceMapper.class);
+            fourthJob.setNumReduceTasks(0); //Every pair is computed by exactly one mapper
+        }
+
+        fourthJob.setOutputKeyClass(BookPairWritable.class);
+        fourthJob.setOutputValueClass(DoubleWritable.class);
+
+        BCVBlocks.addCacheFiles(fourthJob, workPath(conf, "thirdJobOutput"), "fourthInput");
+
+        Path fourthJobOutputPath = workPath(conf, "fourthJobOutput");
+
+        FileInputFormat.setInputPaths(fourthJob, blockPairsPath);
+        FileOutputFormat.setOutputPath(fourthJob, fourthJobOutputPath);
+
+        runJob(fourthJob);
+    }
+
+    private static void runLshFourthJob(Configuration conf) throws IOException, InterruptedException, ClassNotFoundException {
+        Job fourthJob = Job.getInstance(conf, "LSH EuclidD Job");
+
+        fourthJob.setJarByClass(RecommendationSystem.class);
+
+        fourthJob.setInputFormatClass(SequenceFileInputFormat.class);
+
+        fourthJob.setMapperClass(LshMapper.class);
+        fourthJob.setMapOutputKeyClass(LongWritable.class);
+        fourthJob.setMapOutputValueClass(LshBookWritable.class);
+
+        fourthJob.setReducerClass(LshBucketReducer.class);
+        fourthJob.setOutputKeyClass(BookPairWritable.class);
+        fourthJob.setOutputValueClass(DoubleWritable.class);
+
+        boolean topK = conf.getInt(TopKReducer.TOP_K, 0) > 0;
+
+        //With top-K the candidate pairs go through a second job that keeps the K nearest of each book
+        Path lshOutputPath = topK ? workPath(conf, "lshCandidates") : workPath(conf, "fourthJobOutput");
+        if(topK){
+            fourthJob.setOutputFormatClass(SequenceFileOutputFormat.class);
+        }
+
+        FileInputFormat.setInputPaths(fourthJob, workPath(conf, "thirdJobOutput"));
+        FileOutputFormat.setOutputPath(fourthJob, lshOutputPath);
+
+        runJob(fourthJob);
+        if(!topK){
+            return;
+        }
+
+        Job topKJob = Job.getInstance(conf, "LSH TopK Job");
+
+        topKJob.setJarByClass(RecommendationSystem.class);
+
+        topKJob.setInputFormatClass(SequenceFileInputFormat.class);
+
+        topKJob.setMapperClass(PairToNeighbourMapper.class);
+        topKJob.setMapOutputKeyClass(Text.class);
+        topKJob.setMapOutputValueClass(NeighbourWritable.class);
+
+        topKJob.setReducerClass(TopKReducer.class);
+        topKJob.setOutputKeyClass(BookPairWritable.class);
+        topKJob.setOutputValueClass(DoubleWritable.class);
+
+        FileInputFormat.setInputPaths(topKJob, lshOutputPath);
+        FileOutputFormat.setOutputPath(topKJob, workPath(conf, "fourthJobOutput"));
+
+        runJob(topKJob);
+    }
+
+    /**
+     * Writes one line "i N-1-i" for every row i in the first half of the BCV file, and the middle row alone if
+     * numRows is odd. Row i is compared with the N-1-i books after it, so every line is N-1 comparisons.
+     */
+    private static void writeRowPairs(Configuration conf, Path rowPairsPath, long numRows) throws IOException {
+        FileSystem fs = FileSystem.get(conf);
+        FSDataOutputStream out = fs.create(rowPairsPath, true);
+
+        try {
+            for(long row = 0; row < numRows / 2; row++){
+                out.writeBytes(row + " " + (numRows - 1 - row) + "\n");
+            }
+            if(numRows % 2 == 1){
+                out.writeBytes(numRows / 2 + "\n");
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    private static void runFourthJob(Configuration conf, long numVectors) throws IOException, URISyntaxException, InterruptedException, ClassNotFoundException {
+        Job fourthJob = Job.getInstance(conf, "EuclidD Job");
+
+        fourthJob.setJarByClass(RecommendationSystem.class);
+
+        Path rowPairsPath = workPath(conf, "fourthJobRows/rowPairs.txt");
+        writeRowPairs(conf, rowPairsPath, numVectors);
+
+        // Every mapper gets the same number of row pairs, so the same number of comparisons
+        fourthJob.setInputFormatClass(NLineInputFormat.class);
+        int numMaps = conf.getInt(ALLPAIRS_MAPS, 50);
+        long numRowPairs = (numVectors + 1) / 2;
+        fourthJob.getConfiguration().setInt("mapreduce.input.lineinputformat.linespermap", (int) Math.max(1, (numRowPairs + numMaps - 1) / numMaps));
+
+        fourthJob.setMapperClass(EuclidDMapper.class);
+
+        fourthJob.setMapOutputKeyClass(BookPairWritable.class);
+        fourthJob.setMapOutputValueClass(DoubleWritable.class);
+
+        fourthJob.setPartitionerClass(BookPairPartitioner.class);
+        fourthJob.setReducerClass(EuclidDReducer.class);
+
+        Path fourthJobInputPath = rowPairsPath;
+        fourthJob.addCacheFile(new URI(workPath(conf, "thirdJobText/part-r-00000") + "#fourthInput"));
+
+        Path fourthJobOutputPath = workPath(conf, "fourthJobOutput");
+
+        FileInputFormat.setInputPaths(fourthJob, fourthJobInputPath);
+        FileOutputFormat.setOutputPath(fourthJob, fourthJobOutputPath);
+
+        runJob(fourthJob);
+    }
+
+    /**
+     * Copies a SequenceFile output to text, using the toString of the Writables (same format as the old text outputs)
+     */
+    private static void runTextExportJob(Configuration conf, Path inputPath, Path outputPath) throws IOException, InterruptedException, ClassNotFoundException {
+        Job exportJob = Job.getInstance(conf, "Text Export " + inputPath.getName());
+
+        exportJob.setJarByClass(RecommendationSystem.class);
+
+        exportJob.setInputFormatClass(SequenceFileInputFormat.class);
+
+        //Identity map and reduce, a single reducer writes everything to part-r-00000
+        exportJob.setMapperClass(Mapper.class);
+        exportJob.setReducerClass(Reducer.class);
+        exportJob.setNumReduceTasks(1);
+
+        FileInputFormat.setInputPaths(exportJob, inputPath);
+        FileOutputFormat.setOutputPath(exportJob, outputPath);
+
+        //Key and value classes are taken from the SequenceFile
+        Path firstPart = new Path(inputPath, "part-r-00000");
+        SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(firstPart));
+        try {
+            exportJob.setOutputKeyClass(reader.getKeyClass());
+            exportJob.setOutputValueClass(reader.getValueClass());
+        }
+        finally {
+            reader.close();
+        }
+
+        runJob(exportJob);
+    }
+
+    /**
+     * @return the number of book characteristic vectors written
+     */
+    private static long runThirdJob(Configuration conf) throws IOException, InterruptedException, ClassNotFoundException {
+        Job thrJob = Job.getInstance(conf, "BCV Job");
+
+        thrJob.setJarByClass(RecommendationSystem.class);
+
+        thrJob.setInputFormatClass(SequenceFileInputFormat.class);
+
+        thrJob.setMapperClass(BCVMapper.class);
+        thrJob.setMapOutputKeyClass(Text.class);
+        thrJob.setMapOutputValueClass(TermWeightWritable.class);
+
+        thrJob.setReducerClass(BCVReducer.class);
+        thrJob.setNumReduceTasks(conf.getInt(BCVReducer.NUM_REDUCERS, 10)); //Books are split between reducers
+
+        thrJob.setOutputKeyClass(Text.class);
+        thrJob.setOutputValueClass(SparseVectorWritable.class);
+        thrJob.setOutputFormatClass(SequenceFileOutputFormat.class);
+
+        Path thirdJobInputPath = workPath(conf, "secondJobOutput");
+        Path thirdJobOutputPath = workPath(conf, "thirdJobOutput");
+
+        FileInputFormat.setInputPaths(thrJob, thirdJobInputPath);
+        FileOutputFormat.setOutputPath(thrJob, thirdJobOutputPath);
+
+        runJob(thrJob);
+
+        return thrJob.getCounters().findCounter(TaskCounter.REDUCE_OUTPUT_RECORDS).getValue();
+    }
+
+    /**
+     * Sets up the map side shared by the TermFreq and TfIdf jobs: TermFreqMapper over every part file of the first
+     * job, with a secondary sort that gives every term of a book to one reduce call, most frequent first
+     */
+    private static Job termFreqJob(Configuration conf, String jobName, Path firstJobOutputPath) throws IOException, URISyntaxException {
+        Job job = Job.getInstance(conf, jobName);
+
+        job.setJarByClass(RecommendationSystem.class);
+
+        job.setMapperClass(TermFreqMapper.class);
+        job.setMapOutputKeyClass(BookFreqKeyWritable.class);
+        job.setMapOutputValueClass(IntWritable.class);
+
+        job.setPartitionerClass(BookFreqKeyWritable.BookPartitioner.class);
+        job.setGroupingComparatorClass(BookFreqKeyWritable.GroupingComparator.class);
+
+        job.addCacheFile(new URI(workPath(conf, "dictionaryOutput/part-r-00000") + "#" + TermDictionary.CACHE_NAME));
+
+        FileInputFormat.setInputPaths(job, firstJobOutputPath);
+
+        return job;
+    }
+
+    /**
+     * Second and third jobs in one: normalized term frequencies and TF.IDF are computed by the reducer of the
+     * TermFreq job, nothing is written in between
+     * @return the number of book characteristic vectors written
+     */
+    private static long runTfIdfJob(Configuration conf, Path firstJobOutputPath) throws IOException, InterruptedException, ClassNotFoundException, URISyntaxException {
+        Job tfIdfJob = termFreqJob(conf, "TfIdf Job", firstJobOutputPath);
+
+        tfIdfJob.setReducerClass(TfIdfReducer.class);
+        tfIdfJob.setNumReduceTasks(conf.getInt(BCVReducer.NUM_REDUCERS, 10)); //Books are split between reducers
+
+        tfIdfJob.setOutputKeyClass(Text.class);
+        tfIdfJob.setOutputValueClass(SparseVectorWritable.class);
+        tfIdfJob.setOutputFormatClass(SequenceFileOutputFormat.class);
+
+        FileOutputFormat.setOutputPath(tfIdfJob, workPath(conf, "thirdJobOutput"));
+
+        runJob(tfIdfJob);
+
+        return tfIdfJob.getCounters().findCounter(TaskCounter.REDUCE_OUTPUT_RECORDS).getValue();
+    }
+
+    private static void runSecondJob(Configuration conf, Path firstJobOutputPath) throws IOException, InterruptedException, ClassNotFoundException, URISyntaxException {
+        int numReducers = conf.getInt(MaxFreqReducer.NUM_REDUCERS, 10);
+
+        Job secJob = termFreqJob(conf, "TermFreq Job", firstJobOutputPath);
+
+        secJob.setReducerClass(MaxFreqReducer.class);
+        secJob.setNumReduceTasks(numReducers);
+
+        secJob.setOutputKeyClass(IntWritable.class);
+        secJob.setOutputValueClass(BookFreqWritable.class);
+        secJob.setOutputFormatClass(SequenceFileOutputFormat.class);
+
+        Path termFreqPath = workPath(conf, "secondJobTermFreqs");
+
+        FileOutputFormat.setOutputPath(secJob, termFreqPath);
+
+        runJob(secJob);
+
+        //Collates the normalized frequencies of every term
+        Job collateJob = Job.getInstance(conf, "TermFreq Collate Job");
+
+        collateJob.setJarByClass(RecommendationSystem.class);
+
+        collateJob.setInputFormatClass(SequenceFileInputFormat.class);
+
+        collateJob.setMapperClass(Mapper.class);
+        collateJob.setMapOutputKeyClass(IntWritable.class);
+        collateJob.setMapOutputValueClass(BookFreqWritable.class);
+
+        collateJob.setReducerClass(TermFreqReducer.class);
+        collateJob.setNumReduceTasks(numReducers);
+
+        collateJob.setOutputKeyClass(IntWritable.class);
+        collateJob.setOutputValueClass(BookFreqArrayWritable.class);
+        collateJob.setOutputFormatClass(SequenceFileOutputFormat.class);
+
+        Path secondJobOutputPath = workPath(conf, "secondJobOutput");
+
+        FileInputFormat.setInputPaths(collateJob, termFreqPath);
+        FileOutputFormat.setOutputPath(collateJob, secondJobOutputPath);
+
+        runJob(collateJob);
+    }
+
+    /**
+     * @return the number of books in the output of the first job
+     */
+    private static long runDictionaryJob(Configuration conf, Path firstJobOutputPath) throws IOException, InterruptedException, ClassNotFoundException {
+        Job dictJob = Job.getInstance(conf, "Dictionary Job");
+
+        dictJob.setJarByClass(RecommendationSystem.class);
+
+        dictJob.setMapperClass(DictionaryMapper.class);
+        dictJob.setMapOutputKeyClass(Text.class);
+        dictJob.setMapOutputValueClass(IntWritable.class);
+
+        dictJob.setCombinerClass(FreqReducer.class); //Sums the book counts like word counts
+
+        dictJob.setReducerClass(DictionaryReducer.class);
+        dictJob.setNumReduceTasks(1); //Ids are given out by a single reducer
+
+        dictJob.setOutputKeyClass(Text.class);
+        dictJob.setOutputValueClass(Text.class);
+
+        Path dictJobOutputPath = workPath(conf, "dictionaryOutput");
+
+        FileInputFormat.setInputPaths(dictJob, firstJobOutputPath); //Every part file
+        FileOutputFormat.setOutputPath(dictJob, dictJobOutputPath);
+
+        runJob(dictJob);
+
+        return dictJob.getCounters().findCounter(PipelineCounters.BOOKS).getValue();
+    }
+
+    private static void runFirstJob(String[] args, Configuration conf) throws IOException, InterruptedException, ClassNotFoundException {
+        Job job = Job.getInstance(conf, "Freq Job");
+
+        job.setJarByClass(RecommendationSystem.class);
+
+        if(conf.getBoolean(WHOLE_BOOKS, true)){
+            job.setInputFormatClass(BookInputFormat.class);
+            job.setMapperClass(WholeBookMapper.class);
+        }
+        else {
+            job.setMapperClass(FreqMapper.class);
+        }
+        job.setMapOutputKeyClass(Text.class);
+        job.setMapOutputValueClass(IntWritable.class);
+
+        job.setCombinerClass(FreqReducer.class);
+
+        job.setReducerClass(FreqReducer.class);
+
+        Path inputPath = new Path(args[0]);
+        Path outputPath = new Path(args[1]);
+
+        FileInputFormat.setInputPaths(job, inputPath);
+        FileOutputFormat.setOutputPath(job, outputPath);
+
+        runJob(job);
+    }
+
+}
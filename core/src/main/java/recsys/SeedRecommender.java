@@ -0,0 +1,215 @@
+package recsys;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * "More like these" queries on a RecommendationIndex: books similar to a set of seed books (Ex. a reading history).
+ *
+ * Only the neighbour lists of the seeds are read, once each, in a single pass. A candidate scores
+ * weight / (1 + distance) for every seed it is a neighbour of, so books close to several seeds come first, and the
+ * k best are kept with a TopKHeap. The lists are at most maxNeighbours long, so a query is linear in the number of
+ * seeds, whatever the size of the index. Seeds are never recommended.
+ *
+ * Results are kept in a bounded LRU cache keyed by the seed set, its weights and k. The index is immutable, so a
+ * new index gets a new SeedRecommender (and an empty cache).
+ */
+public class SeedRecommender {
+
+    /**
+     * Books recommended for a seed set, best first. Shared by the cache, never modified.
+     */
+    public static class Recommendations {
+        public final int[] ids;
+        public final double[] scores;
+
+        private Recommendations(int[] ids, double[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+
+        public int size(){
+            return ids.length;
+        }
+    }
+
+    /**
+     * Seeds sorted by id with the weights of duplicates summed, and k
+     */
+    private static class SeedSet {
+        private final int[] seeds;
+        private final double[] weights;
+        private final int k;
+
+        private SeedSet(int[] seeds, double[] weights, int k) {
+            this.seeds = seeds;
+            this.weights = weights;
+            this.k = k;
+        }
+
+        public boolean equals(Object o){
+            if(!(o instanceof SeedSet)){
+                return false;
+            }
+            SeedSet other = (SeedSet) o;
+            return k == other.k && Arrays.equals(seeds, other.seeds) && Arrays.equals(weights, other.weights);
+        }
+
+        public int hashCode(){
+            return 31 * (31 * Arrays.hashCode(seeds) + Arrays.hashCode(weights)) + k;
+        }
+    }
+
+    private final RecommendationIndex index;
+
+    //Access ordered, the least recently used seed set is dropped when full
+    private final Map<SeedSet, Recommendations> cache;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public SeedRecommender(RecommendationIndex index, final int cacheSize) {
+        this.index = index;
+        this.cache = new LinkedHashMap<SeedSet, Recommendations>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<SeedSet, Recommendations> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public RecommendationIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Same weight for every seed
+     */
+    public Recommendations recommend(int[] seeds, int k){
+        double[] weights = new double[seeds.length];
+        Arrays.fill(weights, 1);
+        return recommend(seeds, weights, k);
+    }
+
+    /**
+     * @param seeds - ids of the seed books, ids below 0 (books not in the index) are left out
+     * @param weights - weight of every seed, Ex. higher for recently read books
+     * @return at most k books that are not seeds, best first
+     * @throws IllegalArgumentException if k is negative
+     */
+    public Recommendations recommend(int[] seeds, double[] weights, int k){
+        if(k < 0){
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        SeedSet seedSet = seedSet(seeds, weights, k);
+
+        synchronized (cache) {
+            Recommendations cached = cache.get(seedSet);
+            if(cached != null){
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        Recommendations recommendations = merge(seedSet);
+
+        synchronized (cache) {
+            cache.put(seedSet, recommendations);
+        }
+        return recommendations;
+    }
+
+    private static SeedSet seedSet(int[] seeds, double[] weights, int k){
+        Map<Integer, Double> seedWeights = new HashMap<Integer, Double>();
+        for(int i = 0; i < seeds.length; i++){
+            if(seeds[i] < 0){
+                continue;
+            }
+            Double weight = seedWeights.get(seeds[i]);
+            seedWeights.put(seeds[i], weight == null ? weights[i] : weight + weights[i]);
+        }
+
+        int[] sortedSeeds = new int[seedWeights.size()];
+        int n = 0;
+        for(int seed : seedWeights.keySet()){
+            sortedSeeds[n++] = seed;
+        }
+        Arrays.sort(sortedSeeds);
+
+        double[] sortedWeights = new double[sortedSeeds.length];
+        for(int i = 0; i < sortedSeeds.length; i++){
+            sortedWeights[i] = seedWeights.get(sortedSeeds[i]);
+        }
+        return new SeedSet(sortedSeeds, sortedWeights, k);
+    }
+
+    /**
+     * One pass over the neighbour lists of the seeds, summing the score of every candidate
+     */
+    private Recommendations merge(SeedSet seedSet){
+        int[] seeds = seedSet.seeds;
+
+        int maxCandidates = 0;
+        for(int seed : seeds){
+            maxCandidates += index.neighbourCount(seed);
+        }
+
+        //Open addressing on primitive arrays, sized by the lists and not the index: slot + 1 of the candidate,
+        //0 if empty, at most half full
+        int capacity = Integer.highestOneBit(Math.max(2, maxCandidates) * 2 - 1) * 2;
+        int mask = capacity - 1;
+        int[] table = new int[capacity];
+
+        //Candidates in the order they are first reached, so a tie at the cut goes to the one reached first
+        int[] candidates = new int[maxCandidates];
+        double[] scores = new double[maxCandidates];
+        int numCandidates = 0;
+
+        for(int s = 0; s < seeds.length; s++){
+            int seed = seeds[s];
+            for(int i = 0; i < index.neighbourCount(seed); i++){
+                int neighbour = index.neighbour(seed, i);
+                if(Arrays.binarySearch(seeds, neighbour) >= 0){
+                    continue; //Seeds are never recommended
+                }
+
+                int h = neighbour * 0x9E3779B9;
+                int t = (h ^ (h >>> 16)) & mask;
+                while(table[t] != 0 && candidates[table[t] - 1] != neighbour){
+                    t = (t + 1) & mask;
+                }
+                if(table[t] == 0){
+                    candidates[numCandidates] = neighbour;
+                    table[t] = ++numCandidates;
+                }
+                scores[table[t] - 1] += seedSet.weights[s] / (1 + index.distance(seed, i));
+            }
+        }
+
+        //Highest scores, kept as the smallest negated scores. Never larger than the candidates, whatever k is asked
+        TopKHeap best = new TopKHeap(Math.min(seedSet.k, numCandidates));
+        for(int slot = 0; slot < numCandidates; slot++){
+            best.offer(slot, -scores[slot]);
+        }
+        best.sort();
+
+        int[] ids = new int[best.size()];
+        double[] bestScores = new double[best.size()];
+        for(int i = 0; i < best.size(); i++){
+            ids[i] = candidates[best.id(i)];
+            bestScores[i] = -best.distance(i);
+        }
+        return new Recommendations(ids, bestScores);
+    }
+
+    /**
+     * Ex. "cache 12 hits, 3 misses"
+     */
+    public String cacheStats(){
+        synchronized (cache) {
+            return "cache " + hits + " hits, " + misses + " misses, " + cache.size() + " seed sets";
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Creates the Similarity selected for a run.
+ */
+public class Similarities {
+
+    public static final String EUCLIDEAN = "euclidean";
+    public static final String COSINE = "cosine";
+    public static final String JACCARD = "jaccard";
+
+    /**
+     * @param name - euclidean, cosine or jaccard
+     */
+    public static Similarity forName(String name){
+        if(name.equals(EUCLIDEAN)){
+            return new EuclideanSimilarity();
+        }
+        if(name.equals(COSINE)){
+            return new CosineSimilarity();
+        }
+        if(name.equals(JACCARD)){
+            return new JaccardSimilarity();
+        }
+        throw new IllegalArgumentException("Unknown " + Similarity.SIMILARITY + ": " + name);
+    }
+
+    public static Similarity fromConf(Configuration conf){
+        return forName(conf.get(Similarity.SIMILARITY, EUCLIDEAN));
+    }
+}
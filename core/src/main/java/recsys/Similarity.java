@@ -0,0 +1,28 @@
+package recsys;
+
+/**
+ * How close two book characteristic vectors are, as a distance: 0 for identical books, smaller is closer.
+ *
+ * Selected per run with -D recsys.similarity=euclidean|cosine|jaccard (see Similarities) and used by the blocked and
+ * LSH fourth jobs and LocalPipeline. The allpairs job (EuclidDMapper/EuclidDReducer) is always Euclidean, the dense
+ * one Euclidean or cosine.
+ */
+public interface Similarity {
+
+    String SIMILARITY = "recsys.similarity";
+
+    /**
+     * Called once on every vector when it is loaded, before any distance. Ex. cosine scales it to unit length.
+     */
+    SparseVector prepare(SparseVector bcv);
+
+    /**
+     * Distance between two vectors returned by prepare
+     */
+    double distance(SparseVector bcv1, SparseVector bcv2);
+
+    /**
+     * Same distance between two vectors returned by prepare and quantized (see QuantizedVector)
+     */
+    double distance(QuantizedVector bcv1, QuantizedVector bcv2);
+}
@@ -0,0 +1,222 @@
+package recsys;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The nearest books of every book, stored as primitive arrays.
+ *
+ * Books are numbered 0..size-1. The neighbours of book i are neighbours[offsets[i]] to neighbours[offsets[i+1]-1]
+ * (compressed sparse rows), closest first, with their distance at the same index of distances.
+ *
+ * File format (output of the fourth job, full matrix or top-K):
+ * book1_book2 value1
+ * book1_book3 value2
+ * ...
+ */
+public class SimilarityIndex implements RecommendationIndex {
+
+    private final String[] titles;
+    private final Map<String, Integer> titleToId;
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final float[] distances;
+
+    private SimilarityIndex(String[] titles, Map<String, Integer> titleToId, int[] offsets, int[] neighbours, float[] distances) {
+        this.titles = titles;
+        this.titleToId = titleToId;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.distances = distances;
+    }
+
+    /**
+     * Closest neighbours of every book seen so far, kept while the pairs are read so a full matrix output is never
+     * held in memory
+     */
+    private static class Rows {
+        private final int maxNeighbours;
+        private final List<TopKHeap> nearest = new ArrayList<TopKHeap>();
+
+        private Rows(int maxNeighbours) {
+            this.maxNeighbours = maxNeighbours;
+        }
+
+        private void add(int book1, int book2, float distance){
+            while(nearest.size() <= book1){
+                nearest.add(new TopKHeap(maxNeighbours));
+            }
+
+            TopKHeap row = nearest.get(book1);
+            //A top-K output can list a pair twice (once from each book)
+            if(row.accepts(distance) && !row.contains(book2)){
+                row.offer(book2, distance);
+            }
+        }
+    }
+
+    private static int getOrAddId(String title, Map<String, Integer> titleToId){
+        Integer id = titleToId.get(title);
+        if(id == null){
+            id = titleToId.size();
+            titleToId.put(title, id);
+        }
+        return id;
+    }
+
+    /**
+     * Opens a binary index file (see IndexCompiler) with MappedSimilarityIndex, or loads a fourth job output
+     * @param maxNeighbours - neighbours kept for every book when loading a fourth job output
+     */
+    public static RecommendationIndex open(File file, int maxNeighbours) throws IOException {
+        if(!file.exists()){
+            throw new FileNotFoundException(file.getPath());
+        }
+        if(MappedSimilarityIndex.isIndexFile(file)){
+            return MappedSimilarityIndex.open(file);
+        }
+        return load(file, maxNeighbours);
+    }
+
+    /**
+     * Loads a fourth job output (a file, or every part file of a directory)
+     * @param maxNeighbours - neighbours kept for every book, the closest ones
+     */
+    public static SimilarityIndex load(File output, int maxNeighbours) throws IOException {
+        Map<String, Integer> titleToId = new HashMap<String, Integer>();
+        Rows rows = new Rows(maxNeighbours);
+
+        File[] files = output.isDirectory() ? output.listFiles() : new File[]{output};
+        if(files == null){
+            throw new IOException("Cannot list " + output);
+        }
+        Arrays.sort(files);
+
+        for(File file : files){
+            if(file.isDirectory() || file.getName().startsWith("_") || file.getName().startsWith(".")){
+                continue;
+            }
+            readPairs(file, titleToId, rows);
+        }
+
+        String[] titles = new String[titleToId.size()];
+        for(Map.Entry<String, Integer> title : titleToId.entrySet()){
+            titles[title.getValue()] = title.getKey();
+        }
+
+        return buildRows(titles, titleToId, rows);
+    }
+
+    /**
+     * Reads lines "book1_book2 value" without splitting them into arrays. The jobs write UTF-8 whatever the platform
+     * charset, as IndexCompiler does
+     */
+    private static void readPairs(File file, Map<String, Integer> titleToId, Rows rows) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+
+        try {
+            String line;
+            while((line = bufferedReader.readLine()) != null){
+                int underscore = line.indexOf('_');
+
+                int space = underscore + 1;
+                while(space < line.length() && !Character.isWhitespace(line.charAt(space))){
+                    space++;
+                }
+
+                int value = space;
+                while(value < line.length() && Character.isWhitespace(line.charAt(value))){
+                    value++;
+                }
+
+                if(underscore <= 0 || value >= line.length()){
+                    continue; //Not a pair
+                }
+
+                int book1 = getOrAddId(line.substring(0, underscore), titleToId);
+                int book2 = getOrAddId(line.substring(underscore + 1, space), titleToId);
+                if(book1 == book2){
+                    continue; //Never similar to itself
+                }
+
+                float distance = Float.parseFloat(line.substring(value).trim());
+                rows.add(book1, book2, distance);
+                rows.add(book2, book1, distance);
+            }
+        }
+        finally {
+            bufferedReader.close();
+        }
+    }
+
+    /**
+     * Lays the kept neighbours of every book out as compressed sparse rows, closest first
+     */
+    private static SimilarityIndex buildRows(String[] titles, Map<String, Integer> titleToId, Rows rows){
+        int numBooks = titles.length;
+
+        int numEntries = 0;
+        for(TopKHeap row : rows.nearest){
+            numEntries += row.size();
+        }
+
+        int[] offsets = new int[numBooks + 1];
+        int[] neighbours = new int[numEntries];
+        float[] distances = new float[numEntries];
+
+        int size = 0;
+        for(int book = 0; book < numBooks; book++){
+            offsets[book] = size;
+            if(book >= rows.nearest.size()){
+                continue; //Only seen as the second book of pairs with itself
+            }
+
+            TopKHeap nearest = rows.nearest.get(book);
+            nearest.sort();
+            for(int i = 0; i < nearest.size(); i++){
+                neighbours[size] = nearest.id(i);
+                distances[size] = (float) nearest.distance(i);
+                size++;
+            }
+        }
+        offsets[numBooks] = size;
+
+        return new SimilarityIndex(titles, titleToId, offsets, neighbours, distances);
+    }
+
+    public int size(){
+        return titles.length;
+    }
+
+    public int getId(String title){
+        Integer id = titleToId.get(title);
+        return id == null ? -1 : id;
+    }
+
+    public String getTitle(int id){
+        return titles[id];
+    }
+
+    public int neighbourCount(int id){
+        return offsets[id + 1] - offsets[id];
+    }
+
+    public int neighbour(int id, int i){
+        return neighbours[offsets[id] + i];
+    }
+
+    public float distance(int id, int i){
+        return distances[offsets[id] + i];
+    }
+}
@@ -0,0 +1,236 @@
+package recsys;
+
+/**
+ * A book characteristic vector stored as term ids sorted ascending and the matching TF.IDF weights.
+ *
+ * Terms absent from the vector have a weight of 0, so distances walk both vectors at once (merge join) and
+ * cover the union of their terms without any hashing.
+ */
+public class SparseVector {
+
+    private final int[] termIds;
+    private final double[] weights;
+
+    /**
+     * @param termIds - term ids, sorted ascending with no duplicates
+     * @param weights - weight of the term at the same index
+     */
+    public SparseVector(int[] termIds, double[] weights) {
+        this.termIds = termIds;
+        this.weights = weights;
+    }
+
+    /**
+     * Parses the terms of a BCV line split on whitespace (book1 termId1=TF.IDF termId3=TF.IDF ... )
+     * @param bookBCV - the split line, index 0 is the book
+     * @return the vector of the book
+     */
+    public static SparseVector parseBCV(String[] bookBCV){
+        int size = bookBCV.length - 1;
+        int[] termIds = new int[size];
+        double[] weights = new double[size];
+
+        for(int i = 0; i < size; i++){
+            String termTFIDF = bookBCV[i + 1];
+            int eq = termTFIDF.indexOf('=');
+
+            termIds[i] = Integer.parseInt(termTFIDF.substring(0, eq));
+            weights[i] = Double.parseDouble(termTFIDF.substring(eq + 1));
+        }
+
+        return sorted(termIds, weights);
+    }
+
+    /**
+     * Creates a vector from term ids in any order. Both arrays are sorted in place.
+     */
+    public static SparseVector sorted(int[] termIds, double[] weights){
+        sortByTermId(termIds, weights, 0, termIds.length - 1);
+
+        return new SparseVector(termIds, weights);
+    }
+
+    /**
+     * Quicksort of the term ids, moving the weights along with them
+     */
+    private static void sortByTermId(int[] termIds, double[] weights, int low, int high){
+        while(low < high){
+            int pivot = termIds[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+
+            while(i <= j){
+                while(termIds[i] < pivot) i++;
+                while(termIds[j] > pivot) j--;
+
+                if(i <= j){
+                    int id = termIds[i];
+                    termIds[i] = termIds[j];
+                    termIds[j] = id;
+
+                    double weight = weights[i];
+                    weights[i] = weights[j];
+                    weights[j] = weight;
+
+                    i++;
+                    j--;
+                }
+            }
+
+            //Recurse into the smaller half, loop on the bigger one
+            if(j - low < high - i){
+                sortByTermId(termIds, weights, low, j);
+                low = i;
+            }
+            else {
+                sortByTermId(termIds, weights, i, high);
+                high = j;
+            }
+        }
+    }
+
+    public int size(){
+        return termIds.length;
+    }
+
+    public int termId(int i){
+        return termIds[i];
+    }
+
+    public double weight(int i){
+        return weights[i];
+    }
+
+    /**
+     * Length of the vector
+     */
+    public double norm(){
+        double sum = 0;
+        for(double weight : weights){
+            sum += weight * weight;
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * @return a vector with the same terms and a length of 1 (this vector if it is empty)
+     */
+    public SparseVector normalized(){
+        double norm = norm();
+        if(norm == 0){
+            return this;
+        }
+
+        double[] scaled = new double[weights.length];
+        for(int i = 0; i < weights.length; i++){
+            scaled[i] = weights[i] / norm;
+        }
+        return new SparseVector(termIds, scaled);
+    }
+
+    /**
+     * Dot product, only the terms present in both vectors count
+     */
+    public double dot(SparseVector other){
+        final int[] ids1 = termIds;
+        final int[] ids2 = other.termIds;
+        final double[] w1 = weights;
+        final double[] w2 = other.weights;
+
+        double sum = 0;
+        int i = 0;
+        int j = 0;
+
+        while(i < ids1.length && j < ids2.length){
+            int id1 = ids1[i];
+            int id2 = ids2[j];
+            if(id1 == id2){
+                sum += w1[i++] * w2[j++];
+            }
+            else if(id1 < id2){
+                i++;
+            }
+            else {
+                j++;
+            }
+        }
+
+        return sum;
+    }
+
+    /**
+     * Euclidean distance over the union of the terms of both vectors
+     */
+    public double euclideanDistance(SparseVector other){
+        final int[] ids1 = termIds;
+        final int[] ids2 = other.termIds;
+        final double[] w1 = weights;
+        final double[] w2 = other.weights;
+
+        double sum = 0;
+        int i = 0;
+        int j = 0;
+
+        while(i < ids1.length && j < ids2.length){
+            double diff;
+            if(ids1[i] == ids2[j]){
+                diff = w1[i++] - w2[j++];
+            }
+            else if(ids1[i] < ids2[j]){
+                diff = w1[i++]; //Term only in this vector
+            }
+            else {
+                diff = w2[j++]; //Term only in the other vector
+            }
+            sum += diff * diff;
+        }
+
+        //Terms left over in either vector
+        for(; i < ids1.length; i++){
+            sum += w1[i] * w1[i];
+        }
+        for(; j < ids2.length; j++){
+            sum += w2[j] * w2[j];
+        }
+
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Weighted Jaccard distance over the union of the terms of both vectors, 0 for two empty vectors
+     */
+    public double jaccardDistance(SparseVector other){
+        final int[] ids1 = termIds;
+        final int[] ids2 = other.termIds;
+        final double[] w1 = weights;
+        final double[] w2 = other.weights;
+
+        double minSum = 0;
+        double maxSum = 0;
+        int i = 0;
+        int j = 0;
+
+        while(i < ids1.length && j < ids2.length){
+            if(ids1[i] == ids2[j]){
+                minSum += Math.min(w1[i], w2[j]);
+                maxSum += Math.max(w1[i++], w2[j++]);
+            }
+            else if(ids1[i] < ids2[j]){
+                maxSum += w1[i++]; //Term only in this vector
+            }
+            else {
+                maxSum += w2[j++]; //Term only in the other vector
+            }
+        }
+
+        //Terms left over in either vector
+        for(; i < ids1.length; i++){
+            maxSum += w1[i];
+        }
+        for(; j < ids2.length; j++){
+            maxSum += w2[j];
+        }
+
+        return maxSum == 0 ? 0 : 1 - minSum / maxSum;
+    }
+}
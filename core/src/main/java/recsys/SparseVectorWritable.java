@@ -0,0 +1,123 @@
+package recsys;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Book characteristic vector as written by the third job.
+ *
+ * Term ids are sorted, so each one is written as a variable length gap from the previous id. Weights are written
+ * with the bits the writable was given (see QuantizedVector.BITS): 64 as doubles, 32 as floats, 16 and 8 as codes
+ * of a QuantizedVector after its scale. The bits are written first, so a reader needs no configuration and always
+ * gets double weights back.
+ */
+public class SparseVectorWritable implements Writable {
+
+    private SparseVector vector;
+    private int bits = 64;
+
+    public SparseVectorWritable() {
+    }
+
+    public SparseVectorWritable(SparseVector vector) {
+        this.vector = vector;
+    }
+
+    public SparseVectorWritable(SparseVector vector, int bits) {
+        this.vector = vector;
+        setBits(bits);
+    }
+
+    public SparseVector get() {
+        return vector;
+    }
+
+    public void set(SparseVector vector) {
+        this.vector = vector;
+    }
+
+    /**
+     * @param bits - 64, 32, 16 or 8 bits per weight written
+     */
+    public void setBits(int bits) {
+        if(bits != 64 && bits != 32 && bits != 16 && bits != 8){
+            throw new IllegalArgumentException(QuantizedVector.BITS + " must be 64, 32, 16 or 8: " + bits);
+        }
+        this.bits = bits;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(bits);
+        WritableUtils.writeVInt(out, vector.size());
+
+        float scale = 0;
+        if(bits <= 16){
+            scale = QuantizedVector.scale(vector, bits);
+            out.writeFloat(scale);
+        }
+
+        int prevTermId = 0;
+        for(int i = 0; i < vector.size(); i++){
+            WritableUtils.writeVInt(out, vector.termId(i) - prevTermId);
+            if(bits == 64){
+                out.writeDouble(vector.weight(i));
+            }
+            else if(bits == 32){
+                out.writeFloat((float) vector.weight(i));
+            }
+            else if(bits == 16){
+                out.writeShort(QuantizedVector.code(vector.weight(i), scale));
+            }
+            else {
+                out.writeByte(QuantizedVector.code(vector.weight(i), scale));
+            }
+            prevTermId = vector.termId(i);
+        }
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        bits = in.readByte();
+        int size = WritableUtils.readVInt(in);
+        int[] termIds = new int[size];
+        double[] weights = new double[size];
+
+        float scale = bits <= 16 ? in.readFloat() : 0;
+
+        int termId = 0;
+        for(int i = 0; i < size; i++){
+            termId += WritableUtils.readVInt(in);
+            termIds[i] = termId;
+            if(bits == 64){
+                weights[i] = in.readDouble();
+            }
+            else if(bits == 32){
+                weights[i] = in.readFloat();
+            }
+            else if(bits == 16){
+                weights[i] = in.readShort() * (double) scale;
+            }
+            else {
+                weights[i] = in.readByte() * (double) scale;
+            }
+        }
+
+        vector = new SparseVector(termIds, weights);
+    }
+
+    /**
+     * Same format as the text output of the third job. Ex. termId1=TF.IDF termId3=TF.IDF ...
+     */
+    public String toString(){
+        StringBuilder bcvLine = new StringBuilder();
+
+        for(int i = 0; i < vector.size(); i++){
+            bcvLine.append(vector.termId(i)).append("=").append(vector.weight(i)).append(" ");
+        }
+
+        return bcvLine.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package recsys;
+
+import java.util.Arrays;
+
+/**
+ * Counts terms given as bytes, for in-mapper combining.
+ *
+ * Open addressing hash table on primitive arrays: the bytes of every term are copied once into a shared byte array
+ * and the table only holds int offsets, lengths and counts, so counting a term that is already in the table does not
+ * allocate. The table holds at most maxTerms terms, isFull() tells the caller to write the counts out and clear it.
+ */
+public class TermCounter {
+
+    private final int maxTerms;
+
+    //Index + 1 of the term in the slot, 0 if the slot is empty
+    private final int[] slots;
+    private final int mask;
+
+    private final int[] hashes;
+    private final int[] starts;
+    private final int[] lengths;
+    private final int[] counts;
+    private int size = 0;
+
+    private byte[] termBytes = new byte[4096];
+    private int termBytesLength = 0;
+
+    public TermCounter(int maxTerms) {
+        if(maxTerms < 1){
+            throw new IllegalArgumentException("A TermCounter holds at least 1 term: " + maxTerms);
+        }
+        this.maxTerms = maxTerms;
+
+        //At most half full
+        int capacity = Integer.highestOneBit(Math.max(2, maxTerms) * 2 - 1) * 2;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+
+        this.hashes = new int[maxTerms];
+        this.starts = new int[maxTerms];
+        this.lengths = new int[maxTerms];
+        this.counts = new int[maxTerms];
+    }
+
+    private static int hash(byte[] bytes, int length){
+        int h = 0;
+        for(int i = 0; i < length; i++){
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private boolean equals(int term, byte[] bytes, int length){
+        if(lengths[term] != length){
+            return false;
+        }
+        int start = starts[term];
+        for(int i = 0; i < length; i++){
+            if(termBytes[start + i] != bytes[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds one occurrence of the term. Must not be called when the counter is full
+     */
+    public void add(byte[] bytes, int length){
+        int h = hash(bytes, length);
+        int slot = h & mask;
+
+        while(slots[slot] != 0){
+            int term = slots[slot] - 1;
+            if(hashes[term] == h && equals(term, bytes, length)){
+                counts[term]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if(termBytesLength + length > termBytes.length){
+            termBytes = Arrays.copyOf(termBytes, Math.max(termBytes.length * 2, termBytesLength + length));
+        }
+        System.arraycopy(bytes, 0, termBytes, termBytesLength, length);
+
+        hashes[size] = h;
+        starts[size] = termBytesLength;
+        lengths[size] = length;
+        counts[size] = 1;
+        termBytesLength += length;
+
+        slots[slot] = ++size;
+    }
+
+    public boolean isFull(){
+        return size >= maxTerms;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @return the bytes all terms are stored in, term i is at getStart(i) to getStart(i) + getLength(i)
+     */
+    public byte[] getTermBytes(){
+        return termBytes;
+    }
+
+    public int getStart(int term){
+        return starts[term];
+    }
+
+    public int getLength(int term){
+        return lengths[term];
+    }
+
+    public int getCount(int term){
+        return counts[term];
+    }
+
+    public void clear(){
+        Arrays.fill(slots, 0);
+        size = 0;
+        termBytesLength = 0;
+    }
+}
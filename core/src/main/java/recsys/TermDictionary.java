@@ -0,0 +1,67 @@
+package recsys;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The term dictionary written by DictionaryReducer, loaded from the distributed cache.
+ *
+ * File format:
+ * term1 id1 documentFrequency1
+ * term2 id2 documentFrequency2
+ * ...
+ */
+public class TermDictionary {
+
+    //Name the dictionary is linked as in the working directory of a task
+    public static final String CACHE_NAME = "termDictionary";
+
+    private final Map<String, Integer> termToId = new HashMap<String, Integer>();
+
+    //Number of books each term appears in, indexed by term id
+    private int[] docFreqs;
+
+    public TermDictionary(String fileName) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(new FileReader(fileName));
+
+        Map<Integer, Integer> idToDocFreq = new HashMap<Integer, Integer>();
+
+        try {
+            String line;
+            while((line = bufferedReader.readLine()) != null){
+                String[] termIdFreq = line.split("\\s+"); //Ex. the 0 600
+
+                int id = Integer.parseInt(termIdFreq[1]);
+                termToId.put(termIdFreq[0], id);
+                idToDocFreq.put(id, Integer.parseInt(termIdFreq[2]));
+            }
+        }
+        finally {
+            bufferedReader.close();
+        }
+
+        docFreqs = new int[termToId.size()];
+        for(Map.Entry<Integer, Integer> idDocFreq : idToDocFreq.entrySet()){
+            docFreqs[idDocFreq.getKey()] = idDocFreq.getValue();
+        }
+    }
+
+    /**
+     * @return the id of the term, or -1 if the term is not in the dictionary
+     */
+    public int getId(String term){
+        Integer id = termToId.get(term);
+        return id == null ? -1 : id;
+    }
+
+    public int getDocFreq(int termId){
+        return docFreqs[termId];
+    }
+
+    public int size(){
+        return docFreqs.length;
+    }
+}
@@ -0,0 +1,74 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+
+/**
+ * Sends the occurrences of word i in document j to the reducer of document j (see MaxFreqReducer), which
+ * normalizes them by the most frequent word of the document.
+ * Words are replaced by their id from the term dictionary (distributed cache).
+ *
+ * Input - lines from FreqReducer
+ *          Key - Not used
+ *          Value - line "Word Title Occurrences" Ex. A L 10
+ * Output - One record per line
+ *          Key - BookFreqKeyWritable (BookTitle, Frequency)
+ *          Value - Term id
+ * Example output:
+ * Term is A (id 7); Books are L, K, M
+ *      L 10    7
+ *      K 9     7
+ *      M 5     7
+ *
+ * Words left out of the dictionary (see VocabularyFilter) are skipped and counted as UNKNOWN_TERMS
+ * (PipelineCounters), published in cleanup.
+ */
+public class TermFreqMapper extends Mapper<Object, Text, BookFreqKeyWritable, IntWritable> {
+
+    private TermDictionary termDictionary;
+
+    private final BookFreqKeyWritable bookFreq = new BookFreqKeyWritable();
+    private final IntWritable termId = new IntWritable();
+
+    private long unknownTerms = 0;
+
+    public void setup(Context context) throws IOException {
+        termDictionary = new TermDictionary("./" + TermDictionary.CACHE_NAME);
+    }
+
+    public void map(Object key, Text value, Context context) throws IOException, InterruptedException {
+        String[] wordBookFreq = value.toString().split("\\s"); //Ex. A L 10
+        if(wordBookFreq.length < 3){
+            context.getCounter(PipelineCounters.PARSE_FAILURES).increment(1);
+            return;
+        }
+
+        String term = wordBookFreq[0];  //A
+        String book = wordBookFreq[1];  //L
+        int freq;
+        try {
+            freq = Integer.parseInt(wordBookFreq[2]);   //10
+        } catch (NumberFormatException e) {
+            context.getCounter(PipelineCounters.PARSE_FAILURES).increment(1);
+            return;
+        }
+
+        int id = termDictionary.getId(term); //A -> 7
+        if(id < 0){
+            unknownTerms++; //Left out of the dictionary by VocabularyFilter
+            return;
+        }
+
+        bookFreq.set(book, freq);
+        termId.set(id);
+
+        context.write(bookFreq, termId); //<L 10, 7>
+    }
+
+    public void cleanup(Context context) {
+        context.getCounter(PipelineCounters.UNKNOWN_TERMS).increment(unknownTerms);
+    }
+}
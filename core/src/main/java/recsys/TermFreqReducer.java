@@ -0,0 +1,33 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collates output of MaxFreqReducer.
+ * Input -
+ *      Key - Term id
+ *      Value - List of BookFreqWritable "|book_freq/maxFreq"
+ * Output -
+ *      Key - Term id
+ *      Value - BookFreqArrayWritable of the values from input
+ * Example:
+ *      7 |L_10/20|K_9/20|M_5/20
+ */
+public class TermFreqReducer extends Reducer<IntWritable, BookFreqWritable, IntWritable, BookFreqArrayWritable> {
+
+    public void reduce(IntWritable key, Iterable<BookFreqWritable> value, Context context) throws IOException, InterruptedException {
+        List<BookFreqWritable> output = new ArrayList<BookFreqWritable>();
+
+        for(BookFreqWritable bookFreq : value){
+            //Hadoop reuses the value object, so copy it
+            output.add(new BookFreqWritable(bookFreq.getBook(), bookFreq.getFreq(), bookFreq.getMaxFreq()));
+        }
+
+        context.write(key, new BookFreqArrayWritable(output.toArray(new BookFreqWritable[output.size()])));
+    }
+}
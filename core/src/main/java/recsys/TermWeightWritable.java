@@ -0,0 +1,47 @@
+package recsys;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A term id and its TF.IDF weight in the book it is the value of.
+ */
+public class TermWeightWritable implements Writable {
+
+    private int termId;
+    private double weight;
+
+    public TermWeightWritable() {
+    }
+
+    public void set(int termId, double weight){
+        this.termId = termId;
+        this.weight = weight;
+    }
+
+    public int getTermId() {
+        return termId;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeVInt(out, termId);
+        out.writeDouble(weight);
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        termId = WritableUtils.readVInt(in);
+        weight = in.readDouble();
+    }
+
+    public String toString(){
+        return termId + "=" + weight;
+    }
+}
@@ -0,0 +1,21 @@
+package recsys;
+
+/**
+ * Term frequency and inverse document frequency, shared by the MapReduce jobs and LocalPipeline.
+ */
+public class TfIdf {
+
+    /**
+     * Normalized term frequency: occurrences of the term divided by the occurrences of the most frequent term
+     */
+    public static double tf(int freq, int maxFreq){
+        return (double) freq / maxFreq;
+    }
+
+    /**
+     * Inverse document frequency: log2 of total numBooks divided by number of books the term appears in
+     */
+    public static double idf(long totalNumBooks, int docFreq){
+        return Math.log((double) totalNumBooks / docFreq) / Math.log(2);
+    }
+}
@@ -0,0 +1,95 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fused version of MaxFreqReducer, TermFreqReducer, BCVMapper and BCVReducer: calculates the Book Characteristic
+ * Vector of a book straight from its term counts.
+ *
+ * The secondary sort of the TermFreq job (see BookFreqKeyWritable) gives every term of a book to one reduce call,
+ * most frequent first, and the document frequency of every term is in the term dictionary (distributed cache), so
+ * the normalized term frequencies never have to be written and regrouped by term.
+ *
+ * Input - from TermFreqMapper
+ *      Key - BookFreqKeyWritable (BookTitle, Frequency), for every value
+ *      Value - Term id
+ * Output: A mapping between the term id and TF.IDF value of the term for that book, as a SparseVectorWritable.
+ * Ex.
+ * Book1 termId1=TF.IDF termId2=TF.IDF termId5=TF.IDF termId7=TF.IDF ...
+ * Book2
+ * ...
+ * Bookn
+ */
+public class TfIdfReducer extends Reducer<BookFreqKeyWritable, IntWritable, Text, SparseVectorWritable> {
+
+    private TermDictionary termDictionary;
+    private long totalNumBooks;
+    private VocabularyFilter vocabularyFilter;
+
+    //Bits per weight written (see QuantizedVector.BITS)
+    private int bits;
+
+    //Reused between books, grown to the largest book
+    private int[] termIds = new int[1024];
+    private double[] TFIDFs = new double[1024];
+
+    private long nonZeroTFIDFs = 0;
+
+    public void setup(Context context) throws IOException {
+        termDictionary = new TermDictionary("./" + TermDictionary.CACHE_NAME);
+        vocabularyFilter = VocabularyFilter.fromConf(context.getConfiguration());
+        bits = context.getConfiguration().getInt(QuantizedVector.BITS, 64);
+
+        totalNumBooks = context.getConfiguration().getLong(BCVMapper.TOTAL_BOOKS, 0);
+        if(totalNumBooks <= 0){
+            throw new IOException(BCVMapper.TOTAL_BOOKS + " is not set");
+        }
+    }
+
+    public void reduce(BookFreqKeyWritable key, Iterable<IntWritable> value, Context context) throws IOException, InterruptedException {
+        int maxFreq = 0;
+        int numTerms = 0;
+
+        for(IntWritable termId : value){
+            //Hadoop moves the key along with the values, so it holds the frequency of this term
+            if(maxFreq == 0){
+                maxFreq = key.getFreq();
+            }
+
+            double TFIDF = TfIdf.tf(key.getFreq(), maxFreq) * TfIdf.idf(totalNumBooks, termDictionary.getDocFreq(termId.get()));
+            if(TFIDF == 0){
+                continue;
+            }
+
+            if(numTerms == termIds.length){
+                termIds = Arrays.copyOf(termIds, numTerms * 2);
+                TFIDFs = Arrays.copyOf(TFIDFs, numTerms * 2);
+            }
+            termIds[numTerms] = termId.get();
+            TFIDFs[numTerms] = TFIDF;
+            numTerms++;
+        }
+        nonZeroTFIDFs += numTerms;
+
+        if(numTerms == 0){
+            return; //BCVMapper writes nothing for a book without a term above 0
+        }
+
+        int numKept = vocabularyFilter.keepTopTerms(termIds, TFIDFs, numTerms);
+        context.getCounter(PipelineCounters.TRIMMED_TERMS).increment(numTerms - numKept);
+
+        SparseVector bcv = SparseVector.sorted(Arrays.copyOf(termIds, numKept), Arrays.copyOf(TFIDFs, numKept));
+
+        //Write book followed by its vector
+        context.write(new Text(key.getBook()), new SparseVectorWritable(bcv, bits));
+    }
+
+    public void cleanup(Context context) {
+        context.getCounter(PipelineCounters.NONZERO_TFIDF).increment(nonZeroTFIDFs);
+    }
+}
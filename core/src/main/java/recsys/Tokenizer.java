@@ -0,0 +1,80 @@
+package recsys;
+
+import org.apache.hadoop.io.Text;
+
+import java.util.Arrays;
+
+/**
+ * Splits the UTF-8 bytes of a line into lower case terms without creating Strings.
+ *
+ * Same terms as splitting on whitespace and removing every character but a-z, A-Z and 1-9: whitespace bytes
+ * separate terms, letters are lower cased, digits 1-9 are kept and every other byte (including all bytes of
+ * multi-byte characters) is dropped. Terms left empty are skipped.
+ */
+public class Tokenizer {
+
+    private byte[] line;
+    private int pos;
+    private int end;
+
+    private byte[] term = new byte[64];
+    private int termLength;
+
+    public void reset(Text text){
+        reset(text.getBytes(), 0, text.getLength());
+    }
+
+    public void reset(byte[] bytes, int start, int end){
+        this.line = bytes;
+        this.pos = start;
+        this.end = end;
+    }
+
+    private static boolean isWhitespace(int b){
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    /**
+     * Moves to the next term
+     * @return false if there are no more terms in the line
+     */
+    public boolean next(){
+        termLength = 0;
+
+        while(pos < end){
+            int b = line[pos++];
+
+            if(isWhitespace(b)){
+                if(termLength > 0){
+                    return true;
+                }
+                continue;
+            }
+
+            if(b >= 'A' && b <= 'Z'){
+                b += 'a' - 'A';
+            }
+            else if(!(b >= 'a' && b <= 'z') && !(b >= '1' && b <= '9')){
+                continue; //Removed, does not end the term
+            }
+
+            if(termLength == term.length){
+                term = Arrays.copyOf(term, termLength * 2);
+            }
+            term[termLength++] = (byte) b;
+        }
+
+        return termLength > 0;
+    }
+
+    /**
+     * @return the bytes of the current term, valid up to getLength() until the next call to next()
+     */
+    public byte[] getBytes(){
+        return term;
+    }
+
+    public int getLength(){
+        return termLength;
+    }
+}
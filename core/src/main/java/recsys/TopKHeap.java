@@ -0,0 +1,123 @@
+package recsys;
+
+/**
+ * Keeps the k smallest distances offered to it, with the id of the neighbour each distance belongs to.
+ *
+ * Bounded max-heap on primitive arrays: the root is the farthest neighbour kept so far, so a new distance only has
+ * to be compared with the root and a full heap is updated in O(log k).
+ */
+public class TopKHeap {
+
+    private final int k;
+    private final int[] ids;
+    private final double[] distances;
+    private int size = 0;
+
+    public TopKHeap(int k) {
+        this.k = k;
+        this.ids = new int[k];
+        this.distances = new double[k];
+    }
+
+    /**
+     * @return true if a neighbour at this distance would be kept
+     */
+    public boolean accepts(double distance){
+        return size < k || (k > 0 && distance < distances[0]);
+    }
+
+    /**
+     * @return true if the neighbour is kept, a linear scan of the at most k neighbours
+     */
+    public boolean contains(int id){
+        for(int i = 0; i < size; i++){
+            if(ids[i] == id){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps the neighbour if it is closer than the farthest one kept so far
+     * @return true if the neighbour was kept
+     */
+    public boolean offer(int id, double distance){
+        if(size < k){
+            //Add at the bottom and sift up
+            int i = size++;
+            while(i > 0){
+                int parent = (i - 1) >>> 1;
+                if(distances[parent] >= distance){
+                    break;
+                }
+                ids[i] = ids[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            distances[i] = distance;
+            return true;
+        }
+
+        if(k == 0 || distance >= distances[0]){
+            return false;
+        }
+
+        //Replace the farthest neighbour and sift down
+        siftDown(0, id, distance, size);
+        return true;
+    }
+
+    private void siftDown(int i, int id, double distance, int heapSize){
+        while(true){
+            int child = 2 * i + 1;
+            if(child >= heapSize){
+                break;
+            }
+            if(child + 1 < heapSize && distances[child + 1] > distances[child]){
+                child++;
+            }
+            if(distances[child] <= distance){
+                break;
+            }
+            ids[i] = ids[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        ids[i] = id;
+        distances[i] = distance;
+    }
+
+    /**
+     * Orders the kept neighbours by distance, closest first (heap sort). Offer must not be called afterwards
+     * until the heap is cleared.
+     */
+    public void sort(){
+        for(int end = size - 1; end > 0; end--){
+            int id = ids[end];
+            double distance = distances[end];
+
+            //Move the farthest to the end, then restore the heap on the rest
+            ids[end] = ids[0];
+            distances[end] = distances[0];
+            siftDown(0, id, distance, end);
+        }
+    }
+
+    public void clear(){
+        size = 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int id(int i){
+        return ids[i];
+    }
+
+    public double distance(int i){
+        return distances[i];
+    }
+}
@@ -0,0 +1,55 @@
+package recsys;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the K nearest neighbours of every book.
+ *
+ * Input -
+ *      Key - Book
+ *      Value - Candidate neighbours (each mapper sends at most K per book)
+ * Output - The K nearest neighbours, closest first
+ *      Key - Book_Neighbour
+ *      Value - distance
+ * Example (K = 2):
+ *      L_K 0.5
+ *      L_M 0.9
+ */
+public class TopKReducer extends Reducer<Text, NeighbourWritable, BookPairWritable, DoubleWritable> {
+
+    public static final String TOP_K = "recsys.topk";
+
+    private TopKHeap nearest;
+
+    //Books kept by the heap, the heap ids are indexes into this list
+    private final List<String> neighbours = new ArrayList<String>();
+
+    public void setup(Context context) {
+        nearest = new TopKHeap(context.getConfiguration().getInt(TOP_K, 30));
+    }
+
+    public void reduce(Text key, Iterable<NeighbourWritable> value, Context context) throws IOException, InterruptedException {
+        nearest.clear();
+        neighbours.clear();
+
+        for(NeighbourWritable neighbour : value){
+            if(nearest.accepts(neighbour.getDistance())){
+                nearest.offer(neighbours.size(), neighbour.getDistance());
+                neighbours.add(neighbour.getBook());
+            }
+        }
+
+        nearest.sort();
+
+        String book = key.toString();
+        for(int i = 0; i < nearest.size(); i++){
+            context.write(new BookPairWritable(book, neighbours.get(nearest.id(i))), new DoubleWritable(nearest.distance(i)));
+        }
+    }
+}
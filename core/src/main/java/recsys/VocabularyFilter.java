@@ -0,0 +1,141 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Terms left out of the book characteristic vectors, so the vectors only keep informative dimensions.
+ *
+ * -D recsys.vocab.stopwords=the,and,of   words dropped by FreqMapper before they are counted
+ * -D recsys.vocab.mindf=2                 terms in fewer books are left out of the dictionary (DictionaryReducer)
+ * -D recsys.vocab.maxdf=0.5               terms in more than this fraction of the books are left out of the dictionary
+ * -D recsys.vocab.topterms=500            only the terms with the highest TF.IDF of every book are kept (BCVReducer)
+ *
+ * Terms left out of the dictionary are skipped by TermFreqMapper. Nothing is filtered by default.
+ */
+public class VocabularyFilter {
+
+    public static final String STOP_WORDS = "recsys.vocab.stopwords";
+    public static final String MIN_DOC_FREQ = "recsys.vocab.mindf";
+    public static final String MAX_DOC_FREQ = "recsys.vocab.maxdf";
+    public static final String TOP_TERMS = "recsys.vocab.topterms";
+
+    private final Set<Text> stopWords = new HashSet<Text>();
+    private final int minDocFreq;
+    private final double maxDocFreq;
+    private final int topTerms;
+
+    //Reused to look up the bytes of a term
+    private final Text probe = new Text();
+
+    /**
+     * @param stopWords - lower case words, as written by Tokenizer
+     * @param minDocFreq - smallest number of books a term must appear in
+     * @param maxDocFreq - largest fraction of the books a term can appear in
+     * @param topTerms - terms kept per book, 0 for all
+     */
+    public VocabularyFilter(String[] stopWords, int minDocFreq, double maxDocFreq, int topTerms) {
+        for(String stopWord : stopWords){
+            if(!stopWord.trim().isEmpty()){
+                this.stopWords.add(new Text(stopWord.trim().toLowerCase()));
+            }
+        }
+        this.minDocFreq = minDocFreq;
+        this.maxDocFreq = maxDocFreq;
+        this.topTerms = topTerms;
+    }
+
+    /**
+     * Keeps every term
+     */
+    public VocabularyFilter() {
+        this(new String[0], 1, 1.0, 0);
+    }
+
+    public static VocabularyFilter fromConf(Configuration conf){
+        return new VocabularyFilter(conf.getTrimmedStrings(STOP_WORDS), conf.getInt(MIN_DOC_FREQ, 1),
+                conf.getDouble(MAX_DOC_FREQ, 1.0), conf.getInt(TOP_TERMS, 0));
+    }
+
+    /**
+     * Ex. "stopwords=[and, the] mindf=2 maxdf=0.5 topterms=0", the same for two filters that leave out the same terms
+     */
+    public String toString(){
+        String[] sortedStopWords = new String[stopWords.size()];
+        int i = 0;
+        for(Text stopWord : stopWords){
+            sortedStopWords[i++] = stopWord.toString();
+        }
+        Arrays.sort(sortedStopWords);
+
+        return "stopwords=" + Arrays.toString(sortedStopWords) + " mindf=" + minDocFreq + " maxdf=" + maxDocFreq
+                + " topterms=" + topTerms;
+    }
+
+    public boolean hasStopWords(){
+        return !stopWords.isEmpty();
+    }
+
+    /**
+     * Not thread safe, the bytes are copied into a reused Text
+     */
+    public boolean isStopWord(byte[] term, int length){
+        probe.set(term, 0, length);
+        return stopWords.contains(probe);
+    }
+
+    public boolean isStopWord(String term){
+        return stopWords.contains(new Text(term));
+    }
+
+    /**
+     * @return true if a term in docFreq of the totalNumBooks books stays in the dictionary
+     */
+    public boolean keepsDocFreq(int docFreq, long totalNumBooks){
+        return docFreq >= minDocFreq && docFreq <= maxDocFreq * totalNumBooks;
+    }
+
+    /**
+     * Keeps the topTerms terms with the highest weights, ties at the cut are broken by the smallest term id
+     * @return the number of terms kept, moved to the start of both arrays in their original order
+     */
+    public int keepTopTerms(int[] termIds, double[] weights, int numTerms){
+        if(topTerms <= 0 || numTerms <= topTerms){
+            return numTerms;
+        }
+
+        //Smallest weight that is kept
+        double[] sorted = Arrays.copyOf(weights, numTerms);
+        Arrays.sort(sorted);
+        double threshold = sorted[numTerms - topTerms];
+
+        //Terms at the threshold, only the ones with the smallest ids fill the places left
+        int aboveThreshold = 0;
+        int[] tiedIds = new int[numTerms];
+        int numTied = 0;
+        for(int i = 0; i < numTerms; i++){
+            if(weights[i] > threshold){
+                aboveThreshold++;
+            }
+            else if(weights[i] == threshold){
+                tiedIds[numTied++] = termIds[i];
+            }
+        }
+        Arrays.sort(tiedIds, 0, numTied);
+        int lastTiedId = tiedIds[topTerms - aboveThreshold - 1];
+
+        int kept = 0;
+        for(int i = 0; i < numTerms; i++){
+            if(weights[i] > threshold || (weights[i] == threshold && termIds[i] <= lastTiedId)){
+                termIds[kept] = termIds[i];
+                weights[kept] = weights[i];
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,96 @@
+package recsys;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+
+/**
+ * FreqMapper for the records of BookInputFormat: the title of every book comes with its body, so nothing depends
+ * on the order of the lines a mapper is given.
+ *
+ * Input - one book
+ *          Key - Title
+ *          Value - Body of the book
+ * Output - A intermediate mapping
+ *          Key - Word (space) Title
+ *          Value - Occurrences of the word in the book
+ *
+ * Words are counted in a TermCounter, written when the book ends or when the counter holds
+ * recsys.freq.inmapper.terms words. Stop words (see VocabularyFilter) are dropped before they are counted.
+ *
+ * Counts TOKENS, STOP_WORDS and TERMS_EMITTED (PipelineCounters), published in cleanup. SKIPPED_LINES is counted
+ * by BookInputFormat.
+ */
+public class WholeBookMapper extends Mapper<Text, Text, Text, IntWritable> {
+
+    private static final byte[] SPACE = {' '};
+
+    private final Tokenizer tokenizer = new Tokenizer();
+
+    private TermCounter termCounter;
+
+    private VocabularyFilter vocabularyFilter; //null without stop words
+
+    //Reused for every record written
+    private final Text wordTitle = new Text();
+    private final IntWritable count = new IntWritable();
+
+    private long tokens = 0;
+    private long stopWords = 0;
+    private long termsEmitted = 0;
+
+    public void setup(Context context) {
+        termCounter = FreqMapper.newTermCounter(context.getConfiguration());
+
+        VocabularyFilter filter = VocabularyFilter.fromConf(context.getConfiguration());
+        if(filter.hasStopWords()){
+            vocabularyFilter = filter;
+        }
+    }
+
+    /**
+     * Writes the counted words of the book and empties the counter
+     */
+    private void flush(Text title, Context context) throws IOException, InterruptedException {
+        byte[] termBytes = termCounter.getTermBytes();
+
+        for(int i = 0; i < termCounter.size(); i++){
+            wordTitle.set(termBytes, termCounter.getStart(i), termCounter.getLength(i));
+            wordTitle.append(SPACE, 0, 1);
+            wordTitle.append(title.getBytes(), 0, title.getLength());
+
+            count.set(termCounter.getCount(i));
+            context.write(wordTitle, count);
+        }
+        termsEmitted += termCounter.size();
+        termCounter.clear();
+    }
+
+    public void map(Text key, Text value, Context context) throws IOException, InterruptedException {
+        tokenizer.reset(value); //Line breaks separate words like spaces
+
+        while(tokenizer.next()){
+            tokens++;
+
+            if(vocabularyFilter != null && vocabularyFilter.isStopWord(tokenizer.getBytes(), tokenizer.getLength())){
+                stopWords++;
+                continue;
+            }
+
+            termCounter.add(tokenizer.getBytes(), tokenizer.getLength());
+            if(termCounter.isFull()){
+                flush(key, context);
+            }
+        }
+
+        flush(key, context);
+    }
+
+    public void cleanup(Context context) {
+        context.getCounter(PipelineCounters.TOKENS).increment(tokens);
+        context.getCounter(PipelineCounters.STOP_WORDS).increment(stopWords);
+        context.getCounter(PipelineCounters.TERMS_EMITTED).increment(termsEmitted);
+    }
+}
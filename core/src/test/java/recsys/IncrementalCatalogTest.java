@@ -0,0 +1,180 @@
+package recsys;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalCatalogTest {
+
+    private static final int NUM_BOOKS = 20;
+    private static final int TOP_K = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final LocalPipeline pipeline = new LocalPipeline(2);
+
+    @After
+    public void shutdown() {
+        pipeline.shutdown();
+    }
+
+    /**
+     * Term -> count over a vocabulary of 40 terms, each present with probability 1/2
+     */
+    private static Map<String, Integer> randomCounts(Random random){
+        Map<String, Integer> counts = new TreeMap<String, Integer>();
+        for(int t = 0; t < 40; t++){
+            if(random.nextBoolean()){
+                counts.put("w" + (char) ('a' + t / 26) + (char) ('a' + t % 26), 1 + random.nextInt(5));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Same terms, other counts, so the document frequency of every term stays the same
+     */
+    private static Map<String, Integer> recount(Random random, Map<String, Integer> counts){
+        Map<String, Integer> recounted = new TreeMap<String, Integer>();
+        for(String term : counts.keySet()){
+            recounted.put(term, 1 + random.nextInt(5));
+        }
+        return recounted;
+    }
+
+    /**
+     * Writes one book in the format of the corpus, header with the title then the text between the markers
+     */
+    private static void writeBook(File file, String title, Map<String, Integer> counts) throws IOException {
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+        try {
+            out.write("Title: " + title + "\n*** START OF THIS BOOK ***\n");
+            for(Map.Entry<String, Integer> termCount : counts.entrySet()){
+                for(int i = 0; i < termCount.getValue(); i++){
+                    out.write(termCount.getKey() + " ");
+                }
+                out.write("\n");
+            }
+            out.write("*** END OF THIS BOOK ***\nLicense\n");
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Same length files are still seen as changed
+     */
+    private static void touch(File file){
+        assertTrue(file.setLastModified(file.lastModified() + 10000));
+    }
+
+    private List<String> neighbourLines(IncrementalCatalog catalog) throws IOException {
+        File output = folder.newFile();
+        catalog.writeNeighbours(output);
+        return Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Same pairs in the same order, distances equal but for the order of the sums
+     */
+    private static void assertSameNeighbours(List<String> expected, List<String> actual){
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++){
+            String[] expectedPair = expected.get(i).split("\t");
+            String[] actualPair = actual.get(i).split("\t");
+            assertEquals(expectedPair[0], actualPair[0]);
+            assertEquals(Double.parseDouble(expectedPair[1]), Double.parseDouble(actualPair[1]), 1e-9);
+        }
+    }
+
+    private File catalogDir(Random random, List<Map<String, Integer>> books) throws IOException {
+        File inputDir = folder.newFolder("input");
+        for(int b = 0; b < NUM_BOOKS; b++){
+            books.add(randomCounts(random));
+            writeBook(new File(inputDir, "book" + b + ".txt"), "Book " + b, books.get(b));
+        }
+        return inputDir;
+    }
+
+    @Test
+    public void updateMatchesAFullRebuild() throws IOException {
+        Random random = new Random(42);
+        List<Map<String, Integer>> books = new ArrayList<Map<String, Integer>>();
+        File inputDir = catalogDir(random, books);
+
+        IncrementalCatalog incremental = new IncrementalCatalog(pipeline, TOP_K, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+        assertEquals(NUM_BOOKS, incremental.update(inputDir));
+
+        //One book removed and one added with its terms, one changed: the IDF is the same, so are the distances
+        Map<String, Integer> removed = books.get(NUM_BOOKS - 1);
+        assertTrue(new File(inputDir, "book" + (NUM_BOOKS - 1) + ".txt").delete());
+        writeBook(new File(inputDir, "added.txt"), "Added", recount(random, removed));
+
+        File changed = new File(inputDir, "book2.txt");
+        writeBook(changed, "Book 2", recount(random, books.get(2)));
+        touch(changed);
+
+        int recomputed = incremental.update(inputDir);
+        assertTrue(recomputed >= 2 && recomputed < NUM_BOOKS);
+
+        IncrementalCatalog rebuilt = new IncrementalCatalog(pipeline, TOP_K, 0, 0);
+        assertEquals(NUM_BOOKS, rebuilt.update(inputDir));
+
+        List<String> lines = neighbourLines(incremental);
+        assertEquals(NUM_BOOKS * TOP_K, lines.size());
+        assertSameNeighbours(neighbourLines(rebuilt), lines);
+    }
+
+    @Test
+    public void savedStateLoadsTheSameCatalog() throws IOException {
+        Random random = new Random(7);
+        File inputDir = catalogDir(random, new ArrayList<Map<String, Integer>>());
+
+        IncrementalCatalog saved = new IncrementalCatalog(pipeline, TOP_K, 0.1, 7);
+        saved.update(inputDir);
+        File stateFile = new File(folder.getRoot(), "state");
+        saved.saveState(stateFile);
+
+        IncrementalCatalog loaded = new IncrementalCatalog(pipeline, TOP_K, 0.1, 7);
+        loaded.loadState(stateFile);
+        assertSameNeighbours(neighbourLines(saved), neighbourLines(loaded));
+
+        //No file changed since the state was saved
+        assertEquals(0, loaded.update(inputDir));
+        assertSameNeighbours(neighbourLines(saved), neighbourLines(loaded));
+    }
+
+    @Test
+    public void otherTopKRebuildsEveryRow() throws IOException {
+        File inputDir = catalogDir(new Random(3), new ArrayList<Map<String, Integer>>());
+
+        IncrementalCatalog saved = new IncrementalCatalog(pipeline, TOP_K, 0.1, 7);
+        saved.update(inputDir);
+        File stateFile = new File(folder.getRoot(), "state");
+        saved.saveState(stateFile);
+
+        IncrementalCatalog loaded = new IncrementalCatalog(pipeline, TOP_K + 1, 0.1, 7);
+        loaded.loadState(stateFile);
+        assertEquals(NUM_BOOKS, loaded.update(inputDir));
+        assertEquals(NUM_BOOKS * (TOP_K + 1), neighbourLines(loaded).size());
+    }
+}
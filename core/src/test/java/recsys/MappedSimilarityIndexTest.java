@@ -0,0 +1,136 @@
+package recsys;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * IndexCompiler output read back with MappedSimilarityIndex
+ */
+public class MappedSimilarityIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //Titles that sort differently as unsigned and signed bytes
+    private static final String[] TITLES = {"moby", "Émile", "apple", "Zola", "Ünter", "b"};
+
+    /**
+     * Writes a full matrix fourth job output over TITLES, the distance of a pair is the sum of its indexes
+     */
+    private File fourthJobOutput() throws IOException {
+        File output = folder.newFile("part-r-00000");
+        Writer out = new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8);
+        try {
+            for(int i = 0; i < TITLES.length; i++){
+                for(int j = i; j < TITLES.length; j++){
+                    out.write(TITLES[i] + "_" + TITLES[j] + "\t" + (i == j ? 0 : i + j + 0.5) + "\n");
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+        return output;
+    }
+
+    private File compile(int numSimilarBooks) throws IOException {
+        File indexFile = new File(folder.getRoot(), "index.bin");
+        IndexCompiler.write(SimilarityIndex.load(fourthJobOutput(), numSimilarBooks), indexFile);
+        return indexFile;
+    }
+
+    @Test
+    public void sameLookupsAsTheLoadedIndex() throws IOException {
+        SimilarityIndex loaded = SimilarityIndex.load(fourthJobOutput(), 3);
+        File indexFile = new File(folder.getRoot(), "index.bin");
+        IndexCompiler.write(loaded, indexFile);
+
+        assertTrue(MappedSimilarityIndex.isIndexFile(indexFile));
+        RecommendationIndex mapped = SimilarityIndex.open(indexFile, 3);
+        assertTrue(mapped instanceof MappedSimilarityIndex);
+        assertEquals(TITLES.length, mapped.size());
+
+        for(String title : TITLES){
+            int id = mapped.getId(title);
+            int loadedId = loaded.getId(title);
+            assertEquals(title, mapped.getTitle(id));
+
+            assertEquals(loaded.neighbourCount(loadedId), mapped.neighbourCount(id));
+            for(int i = 0; i < mapped.neighbourCount(id); i++){
+                assertEquals(loaded.getTitle(loaded.neighbour(loadedId, i)), mapped.getTitle(mapped.neighbour(id, i)));
+                assertEquals(loaded.distance(loadedId, i), mapped.distance(id, i), 0);
+            }
+        }
+    }
+
+    @Test
+    public void neighboursClosestFirst() throws IOException {
+        RecommendationIndex mapped = MappedSimilarityIndex.open(compile(2));
+
+        //"moby" is index 0, its closest are "Émile" (1) and "apple" (2)
+        int moby = mapped.getId("moby");
+        assertEquals(2, mapped.neighbourCount(moby));
+        assertEquals("Émile", mapped.getTitle(mapped.neighbour(moby, 0)));
+        assertEquals(1.5f, mapped.distance(moby, 0), 0);
+        assertEquals("apple", mapped.getTitle(mapped.neighbour(moby, 1)));
+        assertEquals(2.5f, mapped.distance(moby, 1), 0);
+    }
+
+    @Test
+    public void unknownTitles() throws IOException {
+        RecommendationIndex mapped = MappedSimilarityIndex.open(compile(3));
+
+        assertEquals(-1, mapped.getId("zzz"));
+        assertEquals(-1, mapped.getId(""));
+        assertEquals(-1, mapped.getId("Emile"));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFileDoesNotOpen() throws IOException {
+        File indexFile = compile(3);
+        byte[] bytes = Files.readAllBytes(indexFile.toPath());
+
+        File truncated = folder.newFile("truncated.bin");
+        Files.write(truncated.toPath(), Arrays.copyOf(bytes, bytes.length - 4));
+        MappedSimilarityIndex.open(truncated);
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptHeaderDoesNotOpen() throws IOException {
+        File indexFile = compile(3);
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(indexFile, "rw");
+        try {
+            randomAccessFile.seek(12);
+            randomAccessFile.writeInt(Integer.MAX_VALUE); //numEntries
+        }
+        finally {
+            randomAccessFile.close();
+        }
+        MappedSimilarityIndex.open(indexFile);
+    }
+
+    @Test(expected = IOException.class)
+    public void headerOnlyDoesNotOpen() throws IOException {
+        File indexFile = compile(3);
+        byte[] bytes = Files.readAllBytes(indexFile.toPath());
+
+        File header = folder.newFile("header.bin");
+        Files.write(header.toPath(), Arrays.copyOf(bytes, MappedSimilarityIndex.HEADER_SIZE));
+        MappedSimilarityIndex.open(header);
+    }
+}
@@ -0,0 +1,109 @@
+package recsys;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuantizedVectorTest {
+
+    /**
+     * A vector over terms 0..numTerms-1, each present with probability density, weights like TF.IDF (0 to 4)
+     */
+    private static SparseVector randomVector(Random random, int numTerms, double density){
+        int[] termIds = new int[numTerms];
+        double[] weights = new double[numTerms];
+        int size = 0;
+        for(int termId = 0; termId < numTerms; termId++){
+            if(random.nextDouble() < density){
+                termIds[size] = termId;
+                weights[size] = 4 * random.nextDouble();
+                size++;
+            }
+        }
+        return new SparseVector(Arrays.copyOf(termIds, size), Arrays.copyOf(weights, size));
+    }
+
+    /**
+     * Largest error of the dot product when every weight is off by at most half a step of its vector
+     */
+    private static double dotErrorBound(SparseVector v1, SparseVector v2, int bits){
+        double halfStep1 = QuantizedVector.scale(v1, bits) / 2.0;
+        double halfStep2 = QuantizedVector.scale(v2, bits) / 2.0;
+
+        double bound = 0;
+        for(int i = 0; i < v1.size(); i++){
+            for(int j = 0; j < v2.size(); j++){
+                if(v1.termId(i) == v2.termId(j)){
+                    bound += v1.weight(i) * halfStep2 + v2.weight(j) * halfStep1 + halfStep1 * halfStep2;
+                }
+            }
+        }
+        return bound;
+    }
+
+    private static void assertDotClose(int bits){
+        Random random = new Random(bits);
+        for(int trial = 0; trial < 50; trial++){
+            SparseVector v1 = randomVector(random, 500, 0.2);
+            SparseVector v2 = randomVector(random, 500, 0.2);
+
+            QuantizedVector q1 = QuantizedVector.quantize(v1, bits);
+            QuantizedVector q2 = QuantizedVector.quantize(v2, bits);
+
+            double exact = v1.dot(v2);
+            double quantized = q1.dot(q2);
+            assertEquals(exact, quantized, dotErrorBound(v1, v2, bits));
+
+            //Summing the codes as longs and scaling once gives the dot product of the weights the codes stand for
+            assertEquals(q1.dequantize().dot(q2.dequantize()), quantized, 1e-9 * exact);
+        }
+    }
+
+    @Test
+    public void dot16BitsIsCloseToExact() {
+        assertDotClose(16);
+    }
+
+    @Test
+    public void dot8BitsIsCloseToExact() {
+        assertDotClose(8);
+    }
+
+    @Test
+    public void distancesMatchTheDequantizedVectors() {
+        Random random = new Random(7);
+        for(int trial = 0; trial < 50; trial++){
+            QuantizedVector q1 = QuantizedVector.quantize(randomVector(random, 300, 0.3), 8);
+            QuantizedVector q2 = QuantizedVector.quantize(randomVector(random, 300, 0.3), 8);
+
+            assertEquals(q1.dequantize().euclideanDistance(q2.dequantize()), q1.euclideanDistance(q2), 1e-9);
+            assertEquals(q1.dequantize().jaccardDistance(q2.dequantize()), q1.jaccardDistance(q2), 1e-9);
+        }
+    }
+
+    @Test
+    public void largestWeightGetsTheLargestCode() {
+        SparseVector vector = new SparseVector(new int[]{1, 2}, new double[]{2.54, 1.27});
+
+        assertEquals(127, QuantizedVector.code(2.54, QuantizedVector.scale(vector, 8)));
+        assertEquals(32767, QuantizedVector.code(2.54, QuantizedVector.scale(vector, 16)));
+    }
+
+    @Test
+    public void emptyVector() {
+        QuantizedVector empty = QuantizedVector.quantize(new SparseVector(new int[0], new double[0]), 8);
+        QuantizedVector other = QuantizedVector.quantize(new SparseVector(new int[]{3}, new double[]{2}), 8);
+
+        assertEquals(0, empty.dot(other), 0);
+        assertEquals(2, empty.euclideanDistance(other), 1e-6); //The scale is a float
+        assertEquals(1, empty.jaccardDistance(other), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherBits() {
+        QuantizedVector.quantize(new SparseVector(new int[]{1}, new double[]{1}), 32);
+    }
+}
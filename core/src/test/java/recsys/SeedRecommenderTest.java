@@ -0,0 +1,169 @@
+package recsys;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SeedRecommenderTest {
+
+    /**
+     * Neighbour lists given as arrays, closest first
+     */
+    private static class ArrayIndex implements RecommendationIndex {
+        private final int[][] neighbours;
+        private final float[][] distances;
+
+        private ArrayIndex(int[][] neighbours, float[][] distances) {
+            this.neighbours = neighbours;
+            this.distances = distances;
+        }
+
+        public int size() {
+            return neighbours.length;
+        }
+
+        public int getId(String title) {
+            return title.startsWith("book") ? Integer.parseInt(title.substring(4)) : -1;
+        }
+
+        public String getTitle(int id) {
+            return "book" + id;
+        }
+
+        public int neighbourCount(int id) {
+            return neighbours[id].length;
+        }
+
+        public int neighbour(int id, int i) {
+            return neighbours[id][i];
+        }
+
+        public float distance(int id, int i) {
+            return distances[id][i];
+        }
+    }
+
+    //A candidate scores weight / (1 + distance) for every seed it is a neighbour of
+    private static final RecommendationIndex INDEX = new ArrayIndex(
+            new int[][]{{1, 2, 3}, {0, 3, 4}, {0, 4}, {1, 0}, {2, 1}},
+            new float[][]{{0, 1, 3}, {0, 1, 2}, {1, 1}, {1, 3}, {1, 2}});
+
+    @Test
+    public void mergesTheListsOfTheSeedsAndLeavesTheSeedsOut() {
+        SeedRecommender.Recommendations recommendations = new SeedRecommender(INDEX, 10).recommend(new int[]{0, 1}, 10);
+
+        //book3: 1/4 + 1/2, book2: 1/2, book4: 1/3. book0 and book1 are neighbours of each other but seeds
+        assertArrayEquals(new int[]{3, 2, 4}, recommendations.ids);
+        assertArrayEquals(new double[]{0.75, 0.5, 1 / 3.0}, recommendations.scores, 1e-9);
+    }
+
+    @Test
+    public void keepsTheKBest() {
+        SeedRecommender.Recommendations recommendations = new SeedRecommender(INDEX, 10).recommend(new int[]{0, 1}, 2);
+
+        assertArrayEquals(new int[]{3, 2}, recommendations.ids);
+    }
+
+    @Test
+    public void weightsScaleTheScoresOfASeed() {
+        SeedRecommender.Recommendations recommendations =
+                new SeedRecommender(INDEX, 10).recommend(new int[]{0, 1}, new double[]{1, 3}, 10);
+
+        //book3: 1/4 + 3/2, book4: 3/3, book2: 1/2
+        assertArrayEquals(new int[]{3, 4, 2}, recommendations.ids);
+        assertArrayEquals(new double[]{1.75, 1, 0.5}, recommendations.scores, 1e-9);
+    }
+
+    @Test
+    public void unknownSeedsAreLeftOut() {
+        SeedRecommender.Recommendations recommendations = new SeedRecommender(INDEX, 10).recommend(new int[]{-1, 3, -1}, 10);
+
+        assertArrayEquals(new int[]{1, 0}, recommendations.ids);
+    }
+
+    @Test
+    public void largeKIsBoundedByTheCandidates() {
+        SeedRecommender.Recommendations recommendations =
+                new SeedRecommender(INDEX, 10).recommend(new int[]{0, 1}, Integer.MAX_VALUE);
+
+        assertEquals(3, recommendations.size());
+    }
+
+    @Test
+    public void noSeeds() {
+        assertEquals(0, new SeedRecommender(INDEX, 10).recommend(new int[0], 10).size());
+    }
+
+    @Test
+    public void sameSeedsInAnyOrderHitTheCache() {
+        SeedRecommender recommender = new SeedRecommender(INDEX, 10);
+
+        SeedRecommender.Recommendations first = recommender.recommend(new int[]{0, 1}, 10);
+        assertSame(first, recommender.recommend(new int[]{1, 0}, 10));
+        assertEquals("cache 1 hits, 1 misses, 1 seed sets", recommender.cacheStats());
+
+        recommender.recommend(new int[]{1, 0}, 2); //Another k is another entry
+        assertEquals("cache 1 hits, 2 misses, 2 seed sets", recommender.cacheStats());
+    }
+
+    @Test
+    public void cacheDropsTheLeastRecentlyUsed() {
+        SeedRecommender recommender = new SeedRecommender(INDEX, 1);
+
+        recommender.recommend(new int[]{0}, 10);
+        recommender.recommend(new int[]{1}, 10);
+        recommender.recommend(new int[]{0}, 10);
+        assertEquals("cache 0 hits, 3 misses, 1 seed sets", recommender.cacheStats());
+    }
+
+    @Test
+    public void sameScoresAsSummingEveryList() {
+        Random random = new Random(42);
+        int numBooks = 200;
+        int[][] neighbours = new int[numBooks][];
+        float[][] distances = new float[numBooks][];
+        for(int book = 0; book < numBooks; book++){
+            neighbours[book] = new int[30];
+            distances[book] = new float[30];
+            for(int i = 0; i < 30; i++){
+                neighbours[book][i] = (book + 1 + random.nextInt(numBooks - 1)) % numBooks;
+                distances[book][i] = i + random.nextFloat(); //Closest first
+            }
+        }
+        RecommendationIndex index = new ArrayIndex(neighbours, distances);
+
+        int[] seeds = {3, 50, 51, 199};
+        double[] expected = new double[numBooks];
+        for(int seed : seeds){
+            for(int i = 0; i < 30; i++){
+                expected[neighbours[seed][i]] += 1.0 / (1 + distances[seed][i]);
+            }
+        }
+        for(int seed : seeds){
+            expected[seed] = 0;
+        }
+
+        SeedRecommender.Recommendations recommendations = new SeedRecommender(index, 10).recommend(seeds, numBooks);
+        int numExpected = 0;
+        for(double score : expected){
+            numExpected += score > 0 ? 1 : 0;
+        }
+        assertEquals(numExpected, recommendations.size());
+        for(int i = 0; i < recommendations.size(); i++){
+            assertEquals(expected[recommendations.ids[i]], recommendations.scores[i], 1e-9);
+            if(i > 0){
+                assertTrue(recommendations.scores[i - 1] >= recommendations.scores[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeK() {
+        new SeedRecommender(INDEX, 10).recommend(new int[]{0}, -1);
+    }
+}
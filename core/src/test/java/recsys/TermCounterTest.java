@@ -0,0 +1,78 @@
+package recsys;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TermCounterTest {
+
+    private static void add(TermCounter termCounter, String term){
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        termCounter.add(bytes, bytes.length);
+    }
+
+    private static Map<String, Integer> counts(TermCounter termCounter){
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for(int i = 0; i < termCounter.size(); i++){
+            String term = new String(termCounter.getTermBytes(), termCounter.getStart(i), termCounter.getLength(i), StandardCharsets.UTF_8);
+            counts.put(term, termCounter.getCount(i));
+        }
+        return counts;
+    }
+
+    @Test
+    public void countsEveryTerm() {
+        TermCounter termCounter = new TermCounter(100);
+        for(String term : "the whale the sea the whale".split(" ")){
+            add(termCounter, term);
+        }
+
+        Map<String, Integer> counts = counts(termCounter);
+        assertEquals(3, counts.size());
+        assertEquals(3, (int) counts.get("the"));
+        assertEquals(2, (int) counts.get("whale"));
+        assertEquals(1, (int) counts.get("sea"));
+    }
+
+    @Test
+    public void fullAtMaxTermsAndEmptyAfterClear() {
+        TermCounter termCounter = new TermCounter(2);
+        add(termCounter, "a");
+        add(termCounter, "a");
+        assertFalse(termCounter.isFull());
+
+        add(termCounter, "b");
+        assertTrue(termCounter.isFull());
+
+        termCounter.clear();
+        assertEquals(0, termCounter.size());
+        add(termCounter, "c");
+        assertEquals(1, (int) counts(termCounter).get("c"));
+    }
+
+    @Test
+    public void oneTermCounter() {
+        TermCounter termCounter = new TermCounter(1);
+        add(termCounter, "a");
+        assertTrue(termCounter.isFull());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNoCapacity() {
+        new TermCounter(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mappersRejectInMapperTermsBelowOne() {
+        Configuration conf = new Configuration(false);
+        conf.setInt(FreqMapper.IN_MAPPER_MAX_TERMS, 0);
+        FreqMapper.newTermCounter(conf);
+    }
+}
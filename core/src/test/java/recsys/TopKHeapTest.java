@@ -0,0 +1,99 @@
+package recsys;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TopKHeapTest {
+
+    @Test
+    public void keepsTheKClosestSortedClosestFirst() {
+        TopKHeap heap = new TopKHeap(3);
+        double[] distances = {5, 1, 4, 2, 3, 0.5};
+        for(int id = 0; id < distances.length; id++){
+            heap.offer(id, distances[id]);
+        }
+        heap.sort();
+
+        assertEquals(3, heap.size());
+        assertEquals(5, heap.id(0));
+        assertEquals(0.5, heap.distance(0), 0);
+        assertEquals(1, heap.id(1));
+        assertEquals(3, heap.id(2));
+        assertEquals(2, heap.distance(2), 0);
+    }
+
+    @Test
+    public void evictsTheFarthest() {
+        TopKHeap heap = new TopKHeap(2);
+        assertTrue(heap.offer(1, 1));
+        assertTrue(heap.offer(2, 2));
+
+        assertFalse(heap.accepts(2)); //Ties with the farthest are not kept
+        assertFalse(heap.offer(3, 2));
+        assertTrue(heap.contains(2));
+
+        assertTrue(heap.accepts(1.5));
+        assertTrue(heap.offer(4, 1.5));
+        assertFalse(heap.contains(2));
+        assertTrue(heap.contains(4));
+        assertEquals(2, heap.size());
+    }
+
+    @Test
+    public void sameAsSortingEveryDistance() {
+        Random random = new Random(42);
+        int k = 10;
+        double[] distances = new double[1000];
+        TopKHeap heap = new TopKHeap(k);
+        for(int id = 0; id < distances.length; id++){
+            distances[id] = random.nextDouble();
+            heap.offer(id, distances[id]);
+        }
+        heap.sort();
+
+        double[] sorted = distances.clone();
+        Arrays.sort(sorted);
+        for(int i = 0; i < k; i++){
+            assertEquals(sorted[i], heap.distance(i), 0);
+            assertEquals(sorted[i], distances[heap.id(i)], 0);
+        }
+    }
+
+    @Test
+    public void fewerOffersThanK() {
+        TopKHeap heap = new TopKHeap(5);
+        heap.offer(7, 3);
+        heap.offer(8, 1);
+        heap.sort();
+
+        assertEquals(2, heap.size());
+        assertEquals(8, heap.id(0));
+        assertEquals(7, heap.id(1));
+    }
+
+    @Test
+    public void emptyHeapKeepsNothing() {
+        TopKHeap heap = new TopKHeap(0);
+        assertFalse(heap.accepts(0));
+        assertFalse(heap.offer(1, 0));
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    public void clearEmptiesTheHeap() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(1, 1);
+        heap.offer(2, 2);
+        heap.clear();
+
+        assertEquals(0, heap.size());
+        assertTrue(heap.offer(3, 5));
+        assertFalse(heap.contains(1));
+    }
+}
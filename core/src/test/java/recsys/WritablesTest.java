@@ -0,0 +1,158 @@
+package recsys;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Every Writable read back from what it wrote
+ */
+public class WritablesTest {
+
+    private static final SparseVector BCV = new SparseVector(
+            new int[]{0, 3, 4, 130, 70000},
+            new double[]{0.25, 1.5, 0.001, 3.75, 0.6});
+
+    /**
+     * Writes the first Writable and reads it into the second, which is returned
+     */
+    private static <T extends Writable> T roundTrip(Writable written, T read) throws IOException {
+        DataOutputBuffer out = new DataOutputBuffer();
+        written.write(out);
+
+        DataInputBuffer in = new DataInputBuffer();
+        in.reset(out.getData(), out.getLength());
+        read.readFields(in);
+
+        assertEquals("bytes left unread", out.getLength(), in.getPosition());
+        return read;
+    }
+
+    /**
+     * @param tolerance - largest difference allowed between a weight written and read back
+     */
+    private static void assertVectorRoundTrip(int bits, double tolerance) throws IOException {
+        SparseVector read = roundTrip(new SparseVectorWritable(BCV, bits), new SparseVectorWritable()).get();
+
+        assertEquals(BCV.size(), read.size());
+        for(int i = 0; i < BCV.size(); i++){
+            assertEquals(BCV.termId(i), read.termId(i));
+            assertEquals(BCV.weight(i), read.weight(i), tolerance);
+        }
+    }
+
+    @Test
+    public void sparseVector64BitsIsExact() throws IOException {
+        assertVectorRoundTrip(64, 0);
+    }
+
+    @Test
+    public void sparseVector32BitsKeepsFloatPrecision() throws IOException {
+        assertVectorRoundTrip(32, 3.75 * 1e-7);
+    }
+
+    @Test
+    public void sparseVector16BitsIsWithinHalfAStep() throws IOException {
+        assertVectorRoundTrip(16, QuantizedVector.scale(BCV, 16) / 2);
+    }
+
+    @Test
+    public void sparseVector8BitsIsWithinHalfAStep() throws IOException {
+        assertVectorRoundTrip(8, QuantizedVector.scale(BCV, 8) / 2);
+    }
+
+    @Test
+    public void sparseVectorReadsTheBitsItWasWrittenWith() throws IOException {
+        //The same object reads vectors of any precision, Ex. Hadoop reusing it between records
+        SparseVectorWritable reused = new SparseVectorWritable();
+
+        assertEquals(BCV.weight(1), roundTrip(new SparseVectorWritable(BCV, 8), reused).get().weight(1), 0.02);
+        assertEquals(BCV.weight(1), roundTrip(new SparseVectorWritable(BCV, 64), reused).get().weight(1), 0);
+    }
+
+    @Test
+    public void emptySparseVector() throws IOException {
+        SparseVector empty = new SparseVector(new int[0], new double[0]);
+        for(int bits : new int[]{64, 32, 16, 8}){
+            assertEquals(0, roundTrip(new SparseVectorWritable(empty, bits), new SparseVectorWritable()).get().size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sparseVectorRejectsOtherBits() {
+        new SparseVectorWritable(BCV, 12);
+    }
+
+    @Test
+    public void bookFreqKey() throws IOException {
+        BookFreqKeyWritable key = new BookFreqKeyWritable();
+        key.set("Moby Dick", 42);
+
+        BookFreqKeyWritable read = roundTrip(key, new BookFreqKeyWritable());
+        assertEquals(key, read);
+        assertEquals("Moby Dick", read.getBook());
+        assertEquals(42, read.getFreq());
+    }
+
+    @Test
+    public void bookFreq() throws IOException {
+        BookFreqWritable read = roundTrip(new BookFreqWritable("L", 10, 213), new BookFreqWritable());
+        assertEquals("L", read.getBook());
+        assertEquals(10, read.getFreq());
+        assertEquals(213, read.getMaxFreq());
+    }
+
+    @Test
+    public void bookFreqArray() throws IOException {
+        BookFreqWritable[] bookFreqs = {new BookFreqWritable("L", 10, 213), new BookFreqWritable("K", 12, 100)};
+
+        BookFreqArrayWritable read = roundTrip(new BookFreqArrayWritable(bookFreqs), new BookFreqArrayWritable());
+        assertEquals(2, read.get().length);
+        assertEquals("K", ((BookFreqWritable) read.get()[1]).getBook());
+        assertEquals(new BookFreqArrayWritable(bookFreqs).toString(), read.toString());
+    }
+
+    @Test
+    public void bookPair() throws IOException {
+        BookPairWritable pair = new BookPairWritable("book1", "book2");
+
+        BookPairWritable read = roundTrip(pair, new BookPairWritable());
+        assertEquals(pair, read);
+        assertEquals("book2", read.getBook2());
+    }
+
+    @Test
+    public void termWeight() throws IOException {
+        TermWeightWritable termWeight = new TermWeightWritable();
+        termWeight.set(7, 0.125);
+
+        TermWeightWritable read = roundTrip(termWeight, new TermWeightWritable());
+        assertEquals(7, read.getTermId());
+        assertEquals(0.125, read.getWeight(), 0);
+    }
+
+    @Test
+    public void neighbour() throws IOException {
+        NeighbourWritable read = roundTrip(new NeighbourWritable("book3", 12.5), new NeighbourWritable());
+        assertEquals("book3", read.getBook());
+        assertEquals(12.5, read.getDistance(), 0);
+    }
+
+    @Test
+    public void lshBook() throws IOException {
+        LshBookWritable lshBook = new LshBookWritable("book4", new int[]{5, -1, 1 << 30}, BCV);
+        lshBook.setBits(16);
+
+        LshBookWritable read = roundTrip(lshBook, new LshBookWritable());
+        assertEquals("book4", read.getBook());
+        assertArrayEquals(new int[]{5, -1, 1 << 30}, read.getSignatures());
+        assertEquals(BCV.size(), read.getBCV().size());
+        assertEquals(BCV.weight(3), read.getBCV().weight(3), QuantizedVector.scale(BCV, 16) / 2);
+    }
+}